@@ -0,0 +1,135 @@
+package robert;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import robert.command.CommandType;
+import robert.parser.Parser;
+import robert.task.DescriptionPool;
+
+/**
+ * Runs Robert without a display, e.g. from cron: reads one command per line from a script
+ * file or standard input and writes every response to standard output, through one buffered
+ * writer; a "list all" is streamed to it rather than built in memory. Robert runs in batch
+ * mode, so nothing is saved per command; the whole list is saved every {@code --save-every}
+ * commands and once at the end. With {@code --quiet}, responses are
+ * not even built and nothing is written to standard output. With {@code --columnar}, the tasks
+ * are kept in columns rather than as one object each, which suits large lists of mostly
+ * different descriptions. A "bye" command ends the script
+ * early. Throughput and the {@link DescriptionPool} statistics are reported on standard error.
+ *
+ * <p>Usage: {@code java robert.BatchRunner [--tasks <file>] [--save-every <n>] [--quiet] [--columnar] [script]}
+ */
+public class BatchRunner {
+    private static final String DEFAULT_TASKS_PATH = "data/tasks.txt";
+    private static final int DEFAULT_SAVE_INTERVAL = 100_000;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Runs the script named by the arguments, or standard input if none is named.
+     *
+     * @param args The command line arguments, see the class description.
+     */
+    public static void main(String[] args) {
+        String tasksPath = DEFAULT_TASKS_PATH;
+        int saveInterval = DEFAULT_SAVE_INTERVAL;
+        String scriptPath = null;
+        boolean isQuiet = false;
+        boolean isColumnar = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--tasks") && i + 1 < args.length) {
+                    tasksPath = args[++i];
+                } else if (args[i].equals("--save-every") && i + 1 < args.length) {
+                    saveInterval = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--quiet")) {
+                    isQuiet = true;
+                } else if (args[i].equals("--columnar")) {
+                    isColumnar = true;
+                } else if (scriptPath == null && !args[i].startsWith("--")) {
+                    scriptPath = args[i];
+                } else {
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (saveInterval <= 0) {
+                throw new IllegalArgumentException("--save-every " + saveInterval);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unexpected argument: " + e.getMessage());
+            System.err.println("Usage: java robert.BatchRunner [--tasks <file>] [--save-every <n>] [--quiet]"
+                    + " [--columnar] [script]");
+            System.exit(2);
+        }
+
+        Robert robert = new Robert(tasksPath, true, isColumnar);
+        long start = System.nanoTime();
+        long count;
+        try {
+            try (InputStream script = scriptPath == null ? System.in : new FileInputStream(scriptPath)) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(script, StandardCharsets.UTF_8),
+                        BUFFER_SIZE);
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                        BUFFER_SIZE);
+                count = run(robert, in, isQuiet ? null : out, saveInterval);
+                out.flush();
+            } finally {
+                robert.close();
+            }
+        } catch (IOException e) {
+            System.err.println("My apologies, sir. The batch stopped: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (count > 0 && seconds > 0) {
+            System.err.printf("Ran %d commands in %.2f s (%.0f commands/s)%n", count, seconds, count / seconds);
+        } else {
+            System.err.printf("Ran %d commands in %.2f s%n", count, seconds);
+        }
+        System.err.println(DescriptionPool.shared());
+    }
+
+    /**
+     * Passes every line of the script to {@link Robert#respond}, which writes each response to
+     * {@code out}, followed by a line break. Without {@code out}, the lines are passed to
+     * {@link Robert#execute} instead, which builds no responses. The list is saved every
+     * {@code saveInterval} commands; the caller should {@link Robert#close} the Robert afterwards
+     * to save the rest.
+     *
+     * @param robert       A Robert, usually in batch mode.
+     * @param in           The script, one command per line.
+     * @param out          Where the responses are written, or null to skip them. It is not flushed.
+     * @param saveInterval The number of commands between saves.
+     * @return The number of commands run.
+     * @throws IOException If the script cannot be read, or a response or the list cannot be written.
+     */
+    public static long run(Robert robert, BufferedReader in, Writer out, int saveInterval) throws IOException {
+        assert saveInterval > 0 : "The save interval must be positive";
+        long count = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (out == null) {
+                robert.execute(line);
+            } else {
+                robert.respond(line, out);
+                out.write(System.lineSeparator());
+            }
+            count++;
+            if (count % saveInterval == 0) {
+                robert.save();
+            }
+            if (Parser.parse(line) == CommandType.BYE) {
+                break;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,43 @@
+package robert;
+
+import java.io.IOException;
+
+import robert.storage.StorageConverter;
+import robert.storage.StorageFormat;
+
+/**
+ * Converts a task file between the text and binary formats from the command line, using
+ * {@link StorageConverter}.
+ *
+ * <p>Usage: {@code java robert.ConvertRunner <text|binary> <source> <target>}
+ */
+public class ConvertRunner {
+    private static final String USAGE = "Usage: java robert.ConvertRunner <text|binary> <source> <target>";
+
+    /**
+     * Converts the source file named by the arguments into the target file.
+     *
+     * @param args The target format, the source path and the target path.
+     */
+    public static void main(String[] args) {
+        StorageFormat format = null;
+        try {
+            if (args.length != 3) {
+                throw new IllegalArgumentException("expected 3 arguments, got " + args.length);
+            }
+            format = StorageFormat.valueOf(args[0].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unexpected arguments: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        try {
+            int count = StorageConverter.convert(args[1], args[2], format);
+            System.out.println("Converted " + count + " tasks to " + format + ": " + args[2]);
+        } catch (IOException e) {
+            System.err.println("My apologies, sir. The conversion failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
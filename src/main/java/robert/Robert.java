@@ -1,39 +1,101 @@
 package robert;
 
 import java.io.IOException;
-import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.function.Supplier;
 
+import robert.command.AgendaCommand;
+import robert.command.ByeCommand;
+import robert.command.Command;
 import robert.command.CommandType;
+import robert.command.ConflictsCommand;
+import robert.command.DeadlineCommand;
+import robert.command.DeleteCommand;
+import robert.command.DueCommand;
+import robert.command.EventCommand;
+import robert.command.FindCommand;
+import robert.command.FuzzyCommand;
+import robert.command.ListCommand;
+import robert.command.MarkCommand;
+import robert.command.OverdueCommand;
+import robert.command.RedoCommand;
+import robert.command.SortCommand;
+import robert.command.TodoCommand;
+import robert.command.UndoCommand;
+import robert.parser.ParsedCommand;
 import robert.parser.Parser;
 import robert.storage.Storage;
-import robert.task.Deadline;
-import robert.task.Event;
-import robert.task.Task;
 import robert.task.TaskList;
-import robert.task.Todo;
 
 /**
- * Main class of the Robert chatbot application.
+ * Main class of the Robert chatbot application. Each line of input is tokenized, and its
+ * command word picks a {@link Command} from a table, which is then run stage by stage: parse,
+ * execute, persist and, unless the caller only wants the changes, render. Long listings are
+ * shown a page at a time, or can be written straight to a sink by {@link #respond}.
  */
 public class Robert {
+    private static final int WRITE_BEHIND_MAX_BATCH = 256;
+    private static final long WRITE_BEHIND_MAX_DELAY_MILLIS = 200;
+
     private final Storage storage;
     private TaskList tasks;
+    private final EnumMap<CommandType, Supplier<Command>> commands = createCommands();
+    /** The line being handled, reused for every line of input. */
+    private final ParsedCommand input = new ParsedCommand();
 
     /**
      * Creates a Robert chatbot with the specified file path for data storage.
-     * Loads tasks from file. If loading fails, an empty TaskList is used.
+     * Loads tasks from file (paging through very large files instead of decoding them up front).
+     * If loading fails, an empty TaskList is used.
+     * Mutations are journaled, so each command appends a small record instead of
+     * rewriting the whole file. Journal writes are batched in the background, so at most
+     * {@value #WRITE_BEHIND_MAX_DELAY_MILLIS} ms (or {@value #WRITE_BEHIND_MAX_BATCH} commands)
+     * of changes can be lost in a crash.
+     * The loaded tasks are the first step that {@code undo} can return to.
      *
      * @param filePath The path to the file where tasks will be saved/loaded.
      */
     public Robert(String filePath) {
+        this(filePath, false);
+    }
+
+    /**
+     * Creates a Robert chatbot like {@link #Robert(String)}, or one for running batches of
+     * commands. In batch mode nothing is written per command; the whole list is saved by
+     * {@link #save} and {@link #close} instead, so a crash loses every change since the last save.
+     *
+     * @param filePath  The path to the file where tasks will be saved/loaded.
+     * @param isBatched Whether saving is left to explicit calls of {@link #save}.
+     */
+    public Robert(String filePath, boolean isBatched) {
+        this(filePath, isBatched, false);
+    }
+
+    /**
+     * Creates a Robert chatbot like {@link #Robert(String, boolean)}, optionally keeping the loaded
+     * tasks in columns (see {@link Storage#setColumnar}). A columnar list takes far less memory when
+     * most descriptions differ, but builds a task object on every access.
+     *
+     * @param filePath   The path to the file where tasks will be saved/loaded.
+     * @param isBatched  Whether saving is left to explicit calls of {@link #save}.
+     * @param isColumnar Whether tasks that are decoded up front are kept in columns.
+     */
+    public Robert(String filePath, boolean isBatched, boolean isColumnar) {
         assert filePath != null : "Robert constructor must have a non-null file path";
-        storage = new Storage(filePath);
+        storage = new Storage(filePath, true);
+        storage.setColumnar(isColumnar);
+        if (isBatched) {
+            storage.setDeferred(true);
+        } else {
+            storage.setWriteBehind(WRITE_BEHIND_MAX_BATCH, WRITE_BEHIND_MAX_DELAY_MILLIS);
+        }
         try {
-            tasks = new TaskList(storage.load());
+            tasks = storage.loadTaskList();
         } catch (IOException e) {
             tasks = new TaskList();
         }
+        tasks.checkpoint();
     }
 
     /**
@@ -49,339 +111,146 @@ public class Robert {
     }
 
     /**
-     * Takes a user input string, parses it, executes the command, and returns
-     * a specified response depending on the command word.
+     * Saves the whole list if a batch-mode Robert has changes that have not been saved yet.
+     * A Robert that is not in batch mode persists every command itself, so this does nothing.
      *
-     * @param input Full user input string (e.g., "todo read book").
-     * @return The response lines that should be displayed in the GUI.
-     */
-    public String getResponse(String input) {
-        StringBuilder sb = new StringBuilder();
-        try {
-            CommandType commandWord = Parser.parse(input);
-            switch (commandWord) {
-            case BYE:
-                sb.append("Farewell, sir. I hope to see you again soon!");
-                break;
-
-            case LIST:
-                sb.append("Certainly, sir. Here are the tasks in your list:\n");
-                for (int i = 0; i < tasks.size(); i++) {
-                    sb.append(" ").append(i + 1).append(".").append(tasks.get(i)).append("\n");
-                }
-                break;
-
-            case TODO:
-                sb.append(handleTodo(input.substring("todo".length()).trim()));
-                break;
-
-            case DEADLINE:
-                sb.append(handleDeadline(input.substring("deadline".length()).trim()));
-                break;
-
-            case EVENT:
-                sb.append(handleEvent(input.substring("event".length()).trim()));
-                break;
-
-            case MARK:
-                sb.append(handleMark(input.substring("mark".length()).trim()));
-                break;
-
-            case UNMARK:
-                sb.append(handleUnmark(input.substring("unmark".length()).trim()));
-                break;
-
-            case DELETE:
-                sb.append(handleDelete(input.substring("delete".length()).trim()));
-                break;
-
-            case FIND:
-                sb.append(handleFind(input.substring("find".length()).trim()));
-                break;
-
-            case EMPTY:
-                throw new RobertException("Pardon me, sir, but it appears you typed an empty command.");
-
-            case SORT:
-                sb.append(handleSort());
-                break;
-
-            default:
-                throw new RobertException("Pardon me, sir. I am afraid I did not understand that command.");
-            }
-        } catch (RobertException e) {
-            sb.append(e.getMessage());
-        } catch (IOException e) {
-            sb.append("My apologies, sir. I'm unable to save tasks at the moment!");
-        }
-        return sb.toString().trim();
-    }
-
-    /**
-     * Creates and adds a new {@code Todo} task, then returns the textual response.
-     *
-     * @param description The description of the ToDo task (must not be empty).
-     * @return A string containing the lines that would have been printed previously.
-     * @throws RobertException If the description is empty.
-     * @throws IOException     If saving tasks fails.
+     * @throws IOException If saving tasks fails.
      */
-    private String handleTodo(String description) throws RobertException, IOException {
-        if (description.isEmpty()) {
-            throw new RobertException("The description of a todo cannot be empty.");
+    public void save() throws IOException {
+        if (storage.hasUnsavedChanges()) {
+            storage.save(tasks);
         }
-        Todo t = new Todo(description);
-        tasks.add(t);
-        storage.save(tasks.getTasks());
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("Certainly, sir. I have added this task:\n");
-        sb.append("   ").append(t).append("\n");
-        sb.append("You now have ").append(tasks.size()).append(" tasks in your list, sir.");
-        return sb.toString();
     }
 
     /**
-     * Creates and adds a new {@code Deadline} task, then returns the textual response.
+     * Writes any pending changes to disk and stops background storage work.
+     * Should be called when the application shuts down.
      *
-     * @param desc The raw input after the "deadline" keyword, e.g., "return book /by 2025-01-01".
-     * @return A string containing the lines that would have been printed previously.
-     * @throws RobertException If the format is invalid or fields are empty.
-     * @throws IOException     If saving tasks fails.
+     * @throws IOException If saving tasks fails.
      */
-    private String handleDeadline(String desc) throws RobertException, IOException {
-        if (!desc.contains("/by")) {
-            throw new RobertException("A deadline must have '/by <time>'.");
-        }
-        String[] parts = desc.split("/by");
-        if (parts.length < 2) {
-            throw new RobertException("A deadline must have a description and a time after '/by'.");
-        }
-        String description = parts[0].trim();
-        String by = parts[1].trim();
-        if (description.isEmpty()) {
-            throw new RobertException("The description of a deadline cannot be empty.");
-        }
-        if (by.isEmpty()) {
-            throw new RobertException("The time of a deadline cannot be empty.");
-        }
-
-        Deadline d;
+    public void close() throws IOException {
         try {
-            d = new Deadline(description, by);
-        } catch (DateTimeParseException e) {
-            throw new RobertException(
-                    "Sir, the specified deadline date is invalid. Please use the format yyyy-mm-dd."
-            );
+            save();
+        } finally {
+            storage.close();
         }
-
-        tasks.add(d);
-        storage.save(tasks.getTasks());
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("Certainly, sir. I have added this task:\n");
-        sb.append("   ").append(d).append("\n");
-        sb.append("You now have ").append(tasks.size()).append(" tasks in your list, sir.");
-        return sb.toString();
     }
 
-
     /**
-     * Creates and adds a new {@code Event} task, then returns the textual response.
+     * Takes a user input string, parses it, executes the command, and returns
+     * a specified response depending on the command word.
+     * Every command that changes the tasks becomes one step for {@code undo}.
      *
-     * @param desc The raw input after the "event" keyword, e.g., "some event /from 2025-01-01 /to 2025-01-02".
-     * @return A string containing the lines that would have been printed previously.
-     * @throws RobertException If format is invalid or fields are empty.
-     * @throws IOException     If saving tasks fails.
+     * @param input Full user input string (e.g., "todo read book").
+     * @return The response lines that should be displayed in the GUI.
      */
-    private String handleEvent(String desc) throws RobertException, IOException {
-        if (!desc.contains("/from") || !desc.contains("/to")) {
-            throw new RobertException("An event must have '/from <start>' and '/to <end>'.");
-        }
-        String[] fromSplit = desc.split("/from");
-        if (fromSplit.length < 2) {
-            throw new RobertException("Missing '/from' portion for the event.");
-        }
-        String description = fromSplit[0].trim();
-        String startAndEnd = fromSplit[1].trim();
-        String[] toSplit = startAndEnd.split("/to");
-        if (toSplit.length < 2) {
-            throw new RobertException("Missing '/to' portion for the event.");
-        }
-        String startTime = toSplit[0].trim();
-        String endTime = toSplit[1].trim();
-        if (description.isEmpty()) {
-            throw new RobertException("The description of an event cannot be empty.");
-        }
-        if (startTime.isEmpty() || endTime.isEmpty()) {
-            throw new RobertException("The start/end times for the event cannot be empty.");
+    public String getResponse(String input) {
+        String response;
+        try {
+            response = run(input).render();
+        } catch (RobertException e) {
+            response = e.getMessage();
+        } catch (IOException e) {
+            response = "My apologies, sir. I'm unable to save tasks at the moment!";
         }
-        Event e = new Event(description, startTime, endTime);
-        tasks.add(e);
-        storage.save(tasks.getTasks());
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("Certainly, sir. I have added this task:\n");
-        sb.append("   ").append(e).append("\n");
-        sb.append("You now have ").append(tasks.size()).append(" tasks in your list, sir.");
-        return sb.toString();
+        return response.trim();
     }
 
     /**
-     * Marks a task as done.
+     * Runs a command like {@link #getResponse}, but writes the response to the given sink
+     * instead of returning it, so that long listings are never built as one String.
      *
-     * @param arg A string representing the task number to mark, e.g., "2".
-     * @return A string response containing the lines that would have been printed.
-     * @throws IOException     If saving tasks fails.
-     * @throws RobertException If the task number is invalid or out of range.
+     * @param input Full user input string (e.g., "list all").
+     * @param out   Where the response is written. It is not flushed.
+     * @return False if the command failed, e.g. because it was malformed or could not be saved.
+     * @throws IOException If writing the response fails.
      */
-    private String handleMark(String arg) throws IOException, RobertException {
-        if (arg.isEmpty()) {
-            throw new RobertException("Please specify which task to mark.");
-        }
-
-        int taskNum;
+    public boolean respond(String input, Writer out) throws IOException {
+        Command command;
         try {
-            taskNum = Integer.parseInt(arg);
-        } catch (NumberFormatException e) {
-            throw new RobertException("Sir, '" + arg + "' is not a valid task number.");
-        }
-
-        if (taskNum < 1 || taskNum > tasks.size()) {
-            throw new RobertException("That task number is out of range, sir.");
+            command = run(input);
+        } catch (RobertException e) {
+            out.write(e.getMessage().trim());
+            return false;
+        } catch (IOException e) {
+            out.write("My apologies, sir. I'm unable to save tasks at the moment!");
+            return false;
         }
-        tasks.get(taskNum - 1).markAsDone();
-        storage.save(tasks.getTasks());
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("Certainly, sir. I've marked this task as done:\n");
-        sb.append("   ").append(tasks.get(taskNum - 1));
-        return sb.toString();
+        command.renderTo(out);
+        return true;
     }
 
     /**
-     * Unmarks a task (marks as not done).
+     * Runs a command like {@link #getResponse}, but does not render a response, e.g. for
+     * scripts whose output nobody reads.
      *
-     * @param arg A string representing the task number to unmark, e.g., "2".
-     * @return A string response containing the lines that would have been printed.
-     * @throws IOException     If saving tasks fails.
-     * @throws RobertException If the task number is invalid or out of range.
+     * @param input Full user input string (e.g., "todo read book").
+     * @return False if the command failed, e.g. because it was malformed or could not be saved.
      */
-    private String handleUnmark(String arg) throws IOException, RobertException {
-        if (arg.isEmpty()) {
-            throw new RobertException("Please specify which task to unmark.");
-        }
-
-        int taskNum;
+    public boolean execute(String input) {
         try {
-            taskNum = Integer.parseInt(arg);
-        } catch (NumberFormatException e) {
-            throw new RobertException("Sir, '" + arg + "' is not a valid task number.");
-        }
-
-        if (taskNum < 1 || taskNum > tasks.size()) {
-            throw new RobertException("That task number is out of range, sir.");
+            run(input);
+            return true;
+        } catch (RobertException | IOException e) {
+            return false;
         }
-        tasks.get(taskNum - 1).markAsNotDone();
-        storage.save(tasks.getTasks());
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("Certainly, sir. I've marked this task as not done yet:\n");
-        sb.append("   ").append(tasks.get(taskNum - 1));
-        return sb.toString();
     }
 
     /**
-     * Deletes a task from the task list.
+     * Makes the given command word run new instances of the given command, replacing any
+     * command registered for it before.
      *
-     * @param arg A string representing the task number to delete.
-     * @return A string response containing the lines that would have been printed.
-     * @throws IOException     If saving tasks fails.
-     * @throws RobertException If the task number is invalid or out of range.
+     * @param type    The command word.
+     * @param factory Creates a Command for each line of input with that command word.
      */
-    private String handleDelete(String arg) throws IOException, RobertException {
-        if (arg.isEmpty()) {
-            throw new RobertException("Please specify which task to delete.");
-        }
-        int taskNum = Integer.parseInt(arg);
-        if (taskNum < 1 || taskNum > tasks.size()) {
-            throw new RobertException("That task number is out of range, sir.");
-        }
-        Task removedTask = tasks.remove(taskNum - 1);
-        storage.save(tasks.getTasks());
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("Certainly, sir. I've removed this task:\n");
-        sb.append("   ").append(removedTask).append("\n");
-        sb.append("You now have ").append(tasks.size()).append(" tasks in the list, sir.");
-        return sb.toString();
+    public void register(CommandType type, Supplier<Command> factory) {
+        assert type != CommandType.UNKNOWN && type != CommandType.EMPTY : "Only command words can be registered";
+        commands.put(type, factory);
     }
 
     /**
-     * Finds tasks whose description matches the given keyword.
+     * Runs the parse, execute and persist stages of the command on the given line.
      *
-     * @param keyword The search keyword.
-     * @return A string listing the matching tasks, or indicating none found.
-     * @throws RobertException If the keyword is empty.
+     * @return The command, ready to render.
      */
-    private String handleFind(String keyword) throws RobertException {
-        if (keyword.isEmpty()) {
-            throw new RobertException("The find command requires a keyword to search for, sir.");
-        }
-        ArrayList<Task> matchedTasks = new ArrayList<>();
-        for (int i = 0; i < tasks.size(); i++) {
-            Task current = tasks.get(i);
-            if (current.getDescription().toLowerCase().contains(keyword.toLowerCase())) {
-                matchedTasks.add(current);
-            }
-        }
-
-        if (matchedTasks.isEmpty()) {
-            return "My apologies, sir. No tasks matched your search: " + keyword;
-        } else {
-            StringBuilder sb = new StringBuilder("Certainly, sir. Here are the matching tasks:\n");
-            for (int i = 0; i < matchedTasks.size(); i++) {
-                sb.append(" ").append(i + 1).append(".").append(matchedTasks.get(i)).append("\n");
+    private Command run(String line) throws RobertException, IOException {
+        try {
+            Supplier<Command> factory = commands.get(Parser.parse(line, input).getType());
+            if (factory == null) {
+                throw new RobertException("Pardon me, sir. I am afraid I did not understand that command.");
             }
-            return sb.toString();
+            Command command = factory.get();
+            command.parse(input);
+            command.execute(tasks);
+            command.persist(storage, tasks);
+            return command;
+        } finally {
+            tasks.checkpoint();
         }
     }
 
     /**
-     * Sorts all Deadlines by ascending date, placing them first in the list,
-     * followed by all other tasks in their current order.
-     *
-     * @return A string response indicating the new order of tasks.
-     * @throws IOException If saving tasks fails.
+     * Builds the table of the built-in commands.
      */
-    private String handleSort() throws IOException {
-        ArrayList<Task> deadlines = new ArrayList<>();
-        ArrayList<Task> others = new ArrayList<>();
-
-        for (Task t : tasks.getTasks()) {
-            if (t instanceof Deadline) {
-                deadlines.add(t);
-            } else {
-                others.add(t);
-            }
-        }
-
-        deadlines.sort((a, b) -> {
-            Deadline da = (Deadline) a;
-            Deadline db = (Deadline) b;
-            return da.getByDate().compareTo(db.getByDate());
-        });
-
-        tasks.getTasks().clear();
-        tasks.getTasks().addAll(deadlines);
-        tasks.getTasks().addAll(others);
-
-        storage.save(tasks.getTasks());
-
-        StringBuilder sb = new StringBuilder("Certainly, sir. Deadlines have now been sorted by date.\n");
-        sb.append("Here is your newly arranged list:\n");
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append(" ").append(i + 1).append(".").append(tasks.get(i)).append("\n");
-        }
-        return sb.toString();
+    private static EnumMap<CommandType, Supplier<Command>> createCommands() {
+        EnumMap<CommandType, Supplier<Command>> table = new EnumMap<>(CommandType.class);
+        table.put(CommandType.BYE, ByeCommand::new);
+        table.put(CommandType.LIST, ListCommand::new);
+        table.put(CommandType.TODO, TodoCommand::new);
+        table.put(CommandType.DEADLINE, DeadlineCommand::new);
+        table.put(CommandType.EVENT, EventCommand::new);
+        table.put(CommandType.MARK, () -> new MarkCommand(true));
+        table.put(CommandType.UNMARK, () -> new MarkCommand(false));
+        table.put(CommandType.DELETE, DeleteCommand::new);
+        table.put(CommandType.FIND, FindCommand::new);
+        table.put(CommandType.FUZZY, FuzzyCommand::new);
+        table.put(CommandType.DUE, DueCommand::new);
+        table.put(CommandType.OVERDUE, OverdueCommand::new);
+        table.put(CommandType.AGENDA, AgendaCommand::new);
+        table.put(CommandType.CONFLICTS, ConflictsCommand::new);
+        table.put(CommandType.SORT, SortCommand::new);
+        table.put(CommandType.UNDO, UndoCommand::new);
+        table.put(CommandType.REDO, RedoCommand::new);
+        return table;
     }
 }
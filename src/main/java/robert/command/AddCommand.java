@@ -0,0 +1,38 @@
+package robert.command;
+
+import java.io.IOException;
+
+import robert.storage.JournalEntry;
+import robert.storage.Storage;
+import robert.task.Task;
+import robert.task.TaskList;
+
+/**
+ * Adds the task that a subclass creates from the argument of the command.
+ */
+public abstract class AddCommand implements Command {
+    /** The task to add, set by {@link #parse}, and then the task as added, with its id. */
+    protected Task task;
+    private int size;
+
+    @Override
+    public void execute(TaskList tasks) {
+        assert task != null : "An AddCommand must create its task when parsing";
+        task = tasks.add(task);
+        size = tasks.size();
+    }
+
+    @Override
+    public void persist(Storage storage, TaskList tasks) throws IOException {
+        storage.record(JournalEntry.add(task), tasks);
+    }
+
+    @Override
+    public String render() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Certainly, sir. I have added this task:\n");
+        sb.append("   ").append(task).append("\n");
+        sb.append("You now have ").append(size).append(" tasks in your list, sir.");
+        return sb.toString();
+    }
+}
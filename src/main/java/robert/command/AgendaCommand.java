@@ -0,0 +1,54 @@
+package robert.command;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import robert.RobertException;
+import robert.parser.ParsedCommand;
+import robert.task.Event;
+import robert.task.Task;
+import robert.task.TaskList;
+
+/**
+ * Lists the scheduled events that take place during a period, by start time. The period is
+ * two dates or two date-times, e.g. "agenda 2025-03-01 2025-03-07" or
+ * "agenda 2025-03-01 09:00 2025-03-01 17:00"; an end date is included.
+ */
+public class AgendaCommand implements Command {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<Task> events;
+
+    @Override
+    public void parse(ParsedCommand input) throws RobertException {
+        String[] parts = input.getArgument().split("\\s+");
+        int half = parts.length / 2;
+        if (parts.length == 2 || parts.length == 4) {
+            from = Event.parseTime(String.join(" ", Arrays.copyOfRange(parts, 0, half)), false);
+            to = Event.parseTime(String.join(" ", Arrays.copyOfRange(parts, half, parts.length)), true);
+        }
+        if (from == null || to == null) {
+            throw new RobertException("Sir, please use: agenda <yyyy-mm-dd> <yyyy-mm-dd> "
+                    + "or agenda <yyyy-mm-dd HH:mm> <yyyy-mm-dd HH:mm>.");
+        }
+        if (!to.isAfter(from)) {
+            throw new RobertException("Sir, the end of the agenda must come after its start.");
+        }
+    }
+
+    @Override
+    public void execute(TaskList tasks) {
+        events = tasks.eventsBetween(from, to);
+    }
+
+    @Override
+    public String render() {
+        if (events.isEmpty()) {
+            return "Your agenda is clear for that period, sir.";
+        }
+        StringBuilder sb = new StringBuilder("Certainly, sir. Here is your agenda:\n");
+        Listing.appendAll(sb, events);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package robert.command;
+
+import java.io.IOException;
+
+import robert.storage.Storage;
+import robert.task.TaskList;
+
+/**
+ * Writes any queued changes and says goodbye.
+ */
+public class ByeCommand implements Command {
+    @Override
+    public void execute(TaskList tasks) {
+    }
+
+    @Override
+    public void persist(Storage storage, TaskList tasks) throws IOException {
+        storage.flush();
+    }
+
+    @Override
+    public String render() {
+        return "Farewell, sir. I hope to see you again soon!";
+    }
+}
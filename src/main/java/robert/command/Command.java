@@ -0,0 +1,67 @@
+package robert.command;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import robert.RobertException;
+import robert.parser.ParsedCommand;
+import robert.storage.Storage;
+import robert.task.TaskList;
+
+/**
+ * One command of the Robert chatbot, run in four stages so that each can be skipped, batched
+ * or moved elsewhere: {@link #parse} checks the argument before any task is touched,
+ * {@link #execute} applies the command to the task list, {@link #persist} records what changed,
+ * and {@link #render} builds the response, or {@link #renderTo} writes it. Everything render
+ * needs is captured by execute, so the response can be built later, or not at all, without
+ * seeing later changes.
+ *
+ * <p>A new Command object is used for every line of input.
+ */
+public interface Command {
+    /**
+     * Reads and checks the argument of the command. Commands without an argument ignore it.
+     *
+     * @param input The tokenized line; only valid until this method returns.
+     * @throws RobertException If the argument is missing or malformed.
+     */
+    default void parse(ParsedCommand input) throws RobertException {
+    }
+
+    /**
+     * Applies the command to the task list.
+     *
+     * @param tasks The task list.
+     * @throws RobertException If the command refers to tasks that do not exist, or cannot be applied.
+     */
+    void execute(TaskList tasks) throws RobertException;
+
+    /**
+     * Records the changes made by {@link #execute}. Commands that change nothing do nothing.
+     *
+     * @param storage The storage to record the changes in.
+     * @param tasks   The task list, after the command.
+     * @throws IOException If writing fails.
+     */
+    default void persist(Storage storage, TaskList tasks) throws IOException {
+    }
+
+    /**
+     * Returns the response to show for the command, from what {@link #execute} captured.
+     *
+     * @return The response.
+     */
+    String render();
+
+    /**
+     * Writes the response to the given sink instead of returning it. By default this writes
+     * {@link #render}, without surrounding whitespace; commands with long responses write them
+     * piece by piece instead.
+     *
+     * @param out Where the response is written. It is not flushed.
+     * @throws IOException If writing fails.
+     */
+    default void renderTo(Writer out) throws IOException {
+        out.write(render().trim());
+    }
+}
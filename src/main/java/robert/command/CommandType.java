@@ -1,21 +1,52 @@
 package robert.command;
 
+import java.util.Arrays;
+
 /**
  * Represents all the recognized command types in the Robert chatbot.
  */
 public enum CommandType {
-    LIST,
-    BYE,
-    MARK,
-    UNKNOWN,
-    DEADLINE,
-    TODO,
-    DELETE,
-    EVENT,
-    EMPTY,
-    FIND,
-    UNMARK,
-    SORT;
+    LIST("list"),
+    BYE("bye"),
+    MARK("mark"),
+    UNKNOWN(null),
+    DEADLINE("deadline"),
+    TODO("todo"),
+    DELETE("delete"),
+    EVENT("event"),
+    EMPTY(null),
+    FIND("find"),
+    FUZZY("fuzzy"),
+    DUE("due"),
+    OVERDUE("overdue"),
+    AGENDA("agenda"),
+    CONFLICTS("conflicts"),
+    UNMARK("unmark"),
+    UNDO("undo"),
+    REDO("redo"),
+    SORT("sort");
+
+    /** The commands with a keyword, by the first letter of their keyword. */
+    private static final CommandType[][] BY_FIRST_LETTER = new CommandType[26][];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            int count = 0;
+            CommandType[] types = new CommandType[values().length];
+            for (CommandType type : values()) {
+                if (type.keyword != null && type.keyword.charAt(0) == c) {
+                    types[count++] = type;
+                }
+            }
+            BY_FIRST_LETTER[c - 'a'] = Arrays.copyOf(types, count);
+        }
+    }
+
+    private final String keyword;
+
+    CommandType(String keyword) {
+        this.keyword = keyword;
+    }
 
     /**
      * Parses the given input string and returns the matching CommandType.
@@ -27,29 +58,33 @@ public enum CommandType {
         if (input == null || input.trim().isEmpty()) {
             return EMPTY;
         }
-        switch (input.toLowerCase()) {
-        case "bye":
-            return BYE;
-        case "list":
-            return LIST;
-        case "mark":
-            return MARK;
-        case "unmark":
-            return UNMARK;
-        case "delete":
-            return DELETE;
-        case "todo":
-            return TODO;
-        case "deadline":
-            return DEADLINE;
-        case "event":
-            return EVENT;
-        case "find":
-            return FIND;
-        case "sort":
-            return SORT;
-        default:
+        String word = input.trim();
+        return parseCommand(word, 0, word.length());
+    }
+
+    /**
+     * Returns the CommandType whose keyword is the given region of the input, ignoring case,
+     * without copying the region.
+     *
+     * @param input The text containing the command word.
+     * @param start The index of the first character of the command word.
+     * @param end   The index after the last character of the command word.
+     * @return The corresponding CommandType, or EMPTY if the region is empty, or UNKNOWN if unrecognized.
+     */
+    public static CommandType parseCommand(String input, int start, int end) {
+        if (start == end) {
+            return EMPTY;
+        }
+        int letter = Character.toLowerCase(input.charAt(start)) - 'a';
+        if (letter < 0 || letter >= BY_FIRST_LETTER.length) {
             return UNKNOWN;
         }
+        int length = end - start;
+        for (CommandType type : BY_FIRST_LETTER[letter]) {
+            if (type.keyword.length() == length && input.regionMatches(true, start, type.keyword, 0, length)) {
+                return type;
+            }
+        }
+        return UNKNOWN;
     }
 }
@@ -0,0 +1,32 @@
+package robert.command;
+
+import java.util.List;
+
+import robert.task.Task;
+import robert.task.TaskList;
+
+/**
+ * Lists every pair of scheduled events whose times overlap.
+ */
+public class ConflictsCommand implements Command {
+    private List<Task[]> conflicts;
+
+    @Override
+    public void execute(TaskList tasks) {
+        conflicts = tasks.eventConflicts();
+    }
+
+    @Override
+    public String render() {
+        if (conflicts.isEmpty()) {
+            return "Splendid, sir. None of your events overlap.";
+        }
+        StringBuilder sb = new StringBuilder("I'm afraid these events overlap, sir:\n");
+        for (int i = 0; i < conflicts.size(); i++) {
+            Task second = conflicts.get(i)[1];
+            Listing.appendLine(sb, i + 1, conflicts.get(i)[0]);
+            sb.append("    clashes with ").append(second).append(" (#").append(second.getId()).append(")\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package robert.command;
+
+import java.time.format.DateTimeParseException;
+
+import robert.RobertException;
+import robert.parser.ParsedCommand;
+import robert.task.Deadline;
+
+/**
+ * Adds a {@code Deadline}, e.g. "deadline return book /by 2025-01-01".
+ */
+public class DeadlineCommand extends AddCommand {
+    @Override
+    public void parse(ParsedCommand c) throws RobertException {
+        int byMarker = c.indexOf("/by", c.getArgumentStart());
+        if (byMarker < 0) {
+            throw new RobertException("A deadline must have '/by <time>'.");
+        }
+        int byStart = byMarker + "/by".length();
+        int nextMarker = c.indexOf("/by", byStart);
+        int byEnd = nextMarker < 0 ? c.getArgumentEnd() : nextMarker;
+        if (byStart == byEnd) {
+            throw new RobertException("A deadline must have a description and a time after '/by'.");
+        }
+        String description = c.trimmed(c.getArgumentStart(), byMarker);
+        String by = c.trimmed(byStart, byEnd);
+        if (description.isEmpty()) {
+            throw new RobertException("The description of a deadline cannot be empty.");
+        }
+        if (by.isEmpty()) {
+            throw new RobertException("The time of a deadline cannot be empty.");
+        }
+
+        try {
+            task = new Deadline(description, by);
+        } catch (DateTimeParseException e) {
+            throw new RobertException(
+                    "Sir, the specified deadline date is invalid. Please use the format yyyy-mm-dd."
+            );
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package robert.command;
+
+import java.io.IOException;
+import java.util.List;
+
+import robert.RobertException;
+import robert.parser.ParsedCommand;
+import robert.storage.JournalEntry;
+import robert.storage.Storage;
+import robert.task.Task;
+import robert.task.TaskList;
+
+/**
+ * Deletes one or more tasks. Several tasks are removed in one pass over the list and
+ * journaled as one entry.
+ */
+public class DeleteCommand implements Command {
+    private String selection;
+    private int[] indexes;
+    private List<Task> removed;
+    private int size;
+
+    @Override
+    public void parse(ParsedCommand input) throws RobertException {
+        selection = input.getArgument();
+        if (selection.isEmpty()) {
+            throw new RobertException("Please specify which task to delete.");
+        }
+    }
+
+    @Override
+    public void execute(TaskList tasks) throws RobertException {
+        indexes = TaskSelection.resolve(selection, tasks);
+        removed = tasks.removeAll(indexes);
+        size = tasks.size();
+    }
+
+    @Override
+    public void persist(Storage storage, TaskList tasks) throws IOException {
+        storage.record(JournalEntry.deleteAll(indexes), tasks);
+    }
+
+    @Override
+    public String render() {
+        StringBuilder sb = new StringBuilder();
+        if (removed.size() > 1) {
+            sb.append("Certainly, sir. I've removed these ").append(removed.size()).append(" tasks.\n");
+        } else {
+            sb.append("Certainly, sir. I've removed this task:\n");
+            sb.append("   ").append(removed.get(0)).append("\n");
+        }
+        sb.append("You now have ").append(size).append(" tasks in the list, sir.");
+        return sb.toString();
+    }
+}
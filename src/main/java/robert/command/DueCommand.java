@@ -0,0 +1,63 @@
+package robert.command;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import robert.RobertException;
+import robert.parser.ParsedCommand;
+import robert.task.Task;
+import robert.task.TaskList;
+
+/**
+ * Lists the deadlines due before a date, or between two dates (inclusive), earliest first:
+ * "due before yyyy-mm-dd" or "due between yyyy-mm-dd and yyyy-mm-dd".
+ */
+public class DueCommand implements Command {
+    private LocalDate from;
+    private LocalDate to;
+    private String description;
+    private List<Task> dueTasks;
+
+    @Override
+    public void parse(ParsedCommand input) throws RobertException {
+        String[] parts = input.getArgument().split("\\s+");
+        if (parts.length == 2 && parts[0].equalsIgnoreCase("before")) {
+            to = parseDate(parts[1]).minusDays(1);
+            description = "before " + parts[1];
+        } else if (parts.length == 4 && parts[0].equalsIgnoreCase("between") && parts[2].equalsIgnoreCase("and")) {
+            from = parseDate(parts[1]);
+            to = parseDate(parts[3]);
+            if (to.isBefore(from)) {
+                throw new RobertException("Sir, the second date must not come before the first.");
+            }
+            description = "between " + parts[1] + " and " + parts[3];
+        } else {
+            throw new RobertException("Sir, please use: due before <yyyy-mm-dd> "
+                    + "or due between <yyyy-mm-dd> and <yyyy-mm-dd>.");
+        }
+    }
+
+    @Override
+    public void execute(TaskList tasks) {
+        dueTasks = tasks.deadlinesDue(from, to);
+    }
+
+    @Override
+    public String render() {
+        if (dueTasks.isEmpty()) {
+            return "Good news, sir. No deadlines are due " + description + ".";
+        }
+        StringBuilder sb = new StringBuilder("Certainly, sir. These deadlines are due " + description + ":\n");
+        Listing.appendAll(sb, dueTasks);
+        return sb.toString();
+    }
+
+    private static LocalDate parseDate(String date) throws RobertException {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new RobertException("Sir, '" + date + "' is not a valid date. Please use the format yyyy-mm-dd.");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package robert.command;
+
+import robert.RobertException;
+import robert.parser.ParsedCommand;
+import robert.task.Event;
+
+/**
+ * Adds an {@code Event}, e.g. "event project meeting /from 2025-01-01 14:00 /to 2025-01-01 16:00".
+ */
+public class EventCommand extends AddCommand {
+    @Override
+    public void parse(ParsedCommand c) throws RobertException {
+        int fromMarker = c.indexOf("/from", c.getArgumentStart());
+        if (fromMarker < 0 || c.indexOf("/to", c.getArgumentStart()) < 0) {
+            throw new RobertException("An event must have '/from <start>' and '/to <end>'.");
+        }
+        int fromStart = fromMarker + "/from".length();
+        int nextFrom = c.indexOf("/from", fromStart);
+        int fromEnd = nextFrom < 0 ? c.getArgumentEnd() : nextFrom;
+        if (fromStart == fromEnd) {
+            throw new RobertException("Missing '/from' portion for the event.");
+        }
+        int toMarker = c.indexOf("/to", fromStart);
+        if (toMarker < 0 || toMarker >= fromEnd || c.isBlank(toMarker + "/to".length(), fromEnd)) {
+            throw new RobertException("Missing '/to' portion for the event.");
+        }
+        int toStart = toMarker + "/to".length();
+        int nextTo = c.indexOf("/to", toStart);
+        String description = c.trimmed(c.getArgumentStart(), fromMarker);
+        String startTime = c.trimmed(fromStart, toMarker);
+        String endTime = c.trimmed(toStart, nextTo < 0 || nextTo > fromEnd ? fromEnd : nextTo);
+        if (description.isEmpty()) {
+            throw new RobertException("The description of an event cannot be empty.");
+        }
+        if (startTime.isEmpty() || endTime.isEmpty()) {
+            throw new RobertException("The start/end times for the event cannot be empty.");
+        }
+        Event e = new Event(description, startTime, endTime);
+        if (Event.parseTime(startTime, false) != null && Event.parseTime(endTime, true) != null && !e.isScheduled()) {
+            throw new RobertException("Sir, an event cannot end before it starts.");
+        }
+        task = e;
+    }
+}
@@ -0,0 +1,56 @@
+package robert.command;
+
+import robert.RobertException;
+import robert.parser.ParsedCommand;
+import robert.parser.QueryParser;
+import robert.task.TaskList;
+import robert.task.TaskQuery;
+
+/**
+ * Finds the tasks that match a query, e.g. {@code find type:deadline done:no "book"}. A last
+ * word of the form {@code page:3} or {@code page:all} picks the page of matches to show.
+ */
+public class FindCommand extends ListingCommand {
+    private static final String PAGE_PREFIX = "page:";
+
+    private String keyword;
+    private TaskQuery query;
+
+    @Override
+    public void parse(ParsedCommand input) throws RobertException {
+        keyword = input.getArgument();
+        String page = null;
+        int lastWord = keyword.lastIndexOf(' ') + 1;
+        if (keyword.regionMatches(true, lastWord, PAGE_PREFIX, 0, PAGE_PREFIX.length())) {
+            page = keyword.substring(lastWord + PAGE_PREFIX.length());
+            keyword = keyword.substring(0, lastWord).trim();
+        }
+        if (keyword.isEmpty()) {
+            throw new RobertException("The find command requires a keyword to search for, sir.");
+        }
+        if (page != null) {
+            parsePage(page);
+        }
+        query = QueryParser.parse(keyword);
+    }
+
+    @Override
+    public void execute(TaskList tasks) throws RobertException {
+        show(tasks.find(query));
+    }
+
+    @Override
+    protected String header() {
+        return "Certainly, sir. Here are the matching tasks:";
+    }
+
+    @Override
+    protected String commandForPage(int page) {
+        return "find " + keyword + " " + PAGE_PREFIX + (page == 0 ? "all" : page);
+    }
+
+    @Override
+    protected String emptyMessage() {
+        return "My apologies, sir. No tasks matched your search: " + keyword;
+    }
+}
@@ -0,0 +1,42 @@
+package robert.command;
+
+import java.util.List;
+
+import robert.RobertException;
+import robert.parser.ParsedCommand;
+import robert.task.Task;
+import robert.task.TaskList;
+
+/**
+ * Finds the tasks whose descriptions come closest to the given words, allowing for typos,
+ * e.g. "fuzzy retrun book". Lists up to {@value #MATCH_LIMIT} best matches, best first.
+ */
+public class FuzzyCommand implements Command {
+    private static final int MATCH_LIMIT = 10;
+
+    private String query;
+    private List<Task> matches;
+
+    @Override
+    public void parse(ParsedCommand input) throws RobertException {
+        query = input.getArgument();
+        if (query.isEmpty()) {
+            throw new RobertException("The fuzzy command requires some words to search for, sir.");
+        }
+    }
+
+    @Override
+    public void execute(TaskList tasks) {
+        matches = tasks.findSimilar(query, MATCH_LIMIT);
+    }
+
+    @Override
+    public String render() {
+        if (matches.isEmpty()) {
+            return "My apologies, sir. No tasks came close to: " + query;
+        }
+        StringBuilder sb = new StringBuilder("Certainly, sir. These tasks come closest to your search:\n");
+        Listing.appendAll(sb, matches);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package robert.command;
+
+import robert.RobertException;
+import robert.parser.ParsedCommand;
+import robert.task.TaskList;
+
+/**
+ * Lists the tasks with their number and id, a page at a time: "list" shows the first page,
+ * "list 3" the third and "list all" every task.
+ */
+public class ListCommand extends ListingCommand {
+    @Override
+    public void parse(ParsedCommand input) throws RobertException {
+        String page = input.getArgument();
+        if (!page.isEmpty()) {
+            parsePage(page);
+        }
+    }
+
+    @Override
+    public void execute(TaskList tasks) throws RobertException {
+        show(tasks.snapshot());
+    }
+
+    @Override
+    protected String header() {
+        return "Certainly, sir. Here are the tasks in your list:";
+    }
+
+    @Override
+    protected String commandForPage(int page) {
+        return page == 0 ? "list all" : "list " + page;
+    }
+}
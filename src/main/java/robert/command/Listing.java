@@ -0,0 +1,80 @@
+package robert.command;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import robert.task.Task;
+
+/**
+ * Renders numbered lines of tasks for the responses of commands.
+ */
+final class Listing {
+    /** The number of characters gathered before they are written to a sink. */
+    private static final int CHUNK_SIZE = 8192;
+
+    private Listing() {
+    }
+
+    /**
+     * Appends one numbered line of a task listing, followed by the task's id, without a line break.
+     *
+     * @param sb     The response being built.
+     * @param number The one-based number of the line.
+     * @param t      The task to show.
+     */
+    static void appendEntry(StringBuilder sb, int number, Task t) {
+        sb.append(' ').append(number).append('.');
+        t.appendTo(sb);
+        sb.append(" (#").append(t.getId()).append(')');
+    }
+
+    /**
+     * Appends one numbered line of a task listing, followed by the task's id and a line break.
+     */
+    static void appendLine(StringBuilder sb, int number, Task t) {
+        appendEntry(sb, number, t);
+        sb.append('\n');
+    }
+
+    /**
+     * Appends a numbered line for every given task, numbered from one.
+     */
+    static void appendAll(StringBuilder sb, List<Task> tasks) {
+        for (int i = 0; i < tasks.size(); i++) {
+            appendLine(sb, i + 1, tasks.get(i));
+        }
+    }
+
+    /**
+     * Writes a numbered line, preceded by a line break, for the tasks from {@code from} up to
+     * (but excluding) {@code to}, numbered by their index plus one. The lines are gathered in
+     * one reused buffer and written a chunk at a time, so no String is made per task.
+     *
+     * @throws IOException If writing fails.
+     */
+    static void writeLines(Writer out, List<Task> tasks, int from, int to) throws IOException {
+        StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 256);
+        char[] buffer = new char[CHUNK_SIZE];
+        for (int i = from; i < to; i++) {
+            chunk.append('\n');
+            appendEntry(chunk, i + 1, tasks.get(i));
+            if (chunk.length() >= CHUNK_SIZE) {
+                write(chunk, buffer, out);
+            }
+        }
+        write(chunk, buffer, out);
+    }
+
+    /**
+     * Writes the chunk through the buffer and empties it.
+     */
+    private static void write(StringBuilder chunk, char[] buffer, Writer out) throws IOException {
+        for (int start = 0; start < chunk.length(); start += buffer.length) {
+            int end = Math.min(chunk.length(), start + buffer.length);
+            chunk.getChars(start, end, buffer, 0);
+            out.write(buffer, 0, end - start);
+        }
+        chunk.setLength(0);
+    }
+}
@@ -0,0 +1,134 @@
+package robert.command;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import robert.RobertException;
+import robert.task.Task;
+
+/**
+ * A command whose response lists tasks, a page of {@value #PAGE_SIZE} at a time. Tasks keep
+ * their number in the whole listing on every page. Only the tasks on the page are rendered,
+ * and {@link #renderTo} writes them a chunk at a time, so even a listing of hundreds of
+ * thousands of tasks is never built as one String.
+ */
+public abstract class ListingCommand implements Command {
+    /** The number of tasks on a page. */
+    public static final int PAGE_SIZE = 50;
+
+    /** The page to show, counting from one, or 0 to show every task. */
+    private int page = 1;
+    private List<Task> shown;
+    private int from;
+    private int to;
+
+    /**
+     * Reads the page to show: a page number, or "all" for every task.
+     *
+     * @param text The page, not blank.
+     * @throws RobertException If the text is neither a positive number nor "all".
+     */
+    protected void parsePage(String text) throws RobertException {
+        if (text.equalsIgnoreCase("all")) {
+            page = 0;
+            return;
+        }
+        try {
+            page = Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            page = -1;
+        }
+        if (page <= 0) {
+            throw new RobertException("Sir, please name a page by its number, e.g. "
+                    + commandForPage(2) + ", or ask for " + commandForPage(0) + ".");
+        }
+    }
+
+    /**
+     * Captures the page of the given tasks to show.
+     *
+     * @param tasks The whole listing, which must not change afterwards.
+     * @throws RobertException If the page does not exist.
+     */
+    protected void show(List<Task> tasks) throws RobertException {
+        shown = tasks;
+        int pageCount = pageCount();
+        if (page > pageCount) {
+            throw new RobertException("Sir, there is no page " + page + ". There "
+                    + (pageCount == 1 ? "is only 1 page." : "are only " + pageCount + " pages."));
+        }
+        from = page == 0 ? 0 : (page - 1) * PAGE_SIZE;
+        to = page == 0 ? tasks.size() : Math.min(tasks.size(), from + PAGE_SIZE);
+    }
+
+    /**
+     * Returns the first line of the response.
+     *
+     * @return The header, without a line break.
+     */
+    protected abstract String header();
+
+    /**
+     * Returns the command that shows the given page of the same listing.
+     *
+     * @param page The page, or 0 for every task.
+     * @return The command, e.g. "list 2".
+     */
+    protected abstract String commandForPage(int page);
+
+    /**
+     * Returns the response when there are no tasks to list. By default this is the header alone.
+     *
+     * @return The response.
+     */
+    protected String emptyMessage() {
+        return header();
+    }
+
+    @Override
+    public String render() {
+        if (shown.isEmpty()) {
+            return emptyMessage();
+        }
+        StringBuilder sb = new StringBuilder(header());
+        for (int i = from; i < to; i++) {
+            sb.append('\n');
+            Listing.appendEntry(sb, i + 1, shown.get(i));
+        }
+        appendFooter(sb);
+        return sb.toString();
+    }
+
+    @Override
+    public void renderTo(Writer out) throws IOException {
+        if (shown.isEmpty()) {
+            out.write(emptyMessage());
+            return;
+        }
+        out.write(header());
+        Listing.writeLines(out, shown, from, to);
+        StringBuilder footer = new StringBuilder();
+        appendFooter(footer);
+        out.write(footer.toString());
+    }
+
+    private int pageCount() {
+        return Math.max(1, (shown.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    /**
+     * Appends which page this is, on a line of its own, if the listing has more than one.
+     */
+    private void appendFooter(StringBuilder sb) {
+        int pageCount = pageCount();
+        if (page == 0 || pageCount == 1) {
+            return;
+        }
+        sb.append("\nPage ").append(page).append(" of ").append(pageCount).append(", sir.");
+        if (page < pageCount) {
+            sb.append(" Say \"").append(commandForPage(page + 1)).append("\" for the next page, or \"")
+                    .append(commandForPage(0)).append("\" for every task.");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package robert.command;
+
+import java.io.IOException;
+import java.util.List;
+
+import robert.RobertException;
+import robert.parser.ParsedCommand;
+import robert.storage.JournalEntry;
+import robert.storage.Storage;
+import robert.task.Task;
+import robert.task.TaskList;
+
+/**
+ * Marks one or more tasks as done ("mark") or as not done ("unmark"). Several tasks are
+ * changed as one change and journaled as one entry.
+ */
+public class MarkCommand implements Command {
+    private final boolean isDone;
+    private String selection;
+    private int[] indexes;
+    private List<Task> changed;
+
+    /**
+     * Creates a mark or unmark command.
+     *
+     * @param isDone Whether the tasks become done.
+     */
+    public MarkCommand(boolean isDone) {
+        this.isDone = isDone;
+    }
+
+    @Override
+    public void parse(ParsedCommand input) throws RobertException {
+        selection = input.getArgument();
+        if (selection.isEmpty()) {
+            throw new RobertException("Please specify which task to " + (isDone ? "mark." : "unmark."));
+        }
+    }
+
+    @Override
+    public void execute(TaskList tasks) throws RobertException {
+        indexes = TaskSelection.resolve(selection, tasks);
+        changed = tasks.setDoneAll(indexes, isDone);
+    }
+
+    @Override
+    public void persist(Storage storage, TaskList tasks) throws IOException {
+        storage.record(isDone ? JournalEntry.markAll(indexes) : JournalEntry.unmarkAll(indexes), tasks);
+    }
+
+    @Override
+    public String render() {
+        String state = isDone ? "done" : "not done yet";
+        if (changed.size() > 1) {
+            return "Certainly, sir. I've marked these " + changed.size() + " tasks as " + state + ".";
+        }
+        return "Certainly, sir. I've marked this task as " + state + ":\n   " + changed.get(0);
+    }
+}
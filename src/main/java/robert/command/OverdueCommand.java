@@ -0,0 +1,34 @@
+package robert.command;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import robert.task.Task;
+import robert.task.TaskList;
+
+/**
+ * Lists the deadlines that are not done and were due before today, earliest first.
+ */
+public class OverdueCommand implements Command {
+    private final List<Task> overdue = new ArrayList<>();
+
+    @Override
+    public void execute(TaskList tasks) {
+        for (Task t : tasks.deadlinesDue(null, LocalDate.now().minusDays(1))) {
+            if (!t.isDone()) {
+                overdue.add(t);
+            }
+        }
+    }
+
+    @Override
+    public String render() {
+        if (overdue.isEmpty()) {
+            return "Splendid, sir. Nothing is overdue.";
+        }
+        StringBuilder sb = new StringBuilder("I regret to inform you, sir, that these deadlines have passed:\n");
+        Listing.appendAll(sb, overdue);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package robert.command;
+
+import java.io.IOException;
+
+import robert.RobertException;
+import robert.storage.JournalEntry;
+import robert.storage.Storage;
+import robert.task.TaskList;
+
+/**
+ * Reapplies the last change undone by {@link UndoCommand}, and journals it like it does.
+ */
+public class RedoCommand implements Command {
+    private int size;
+
+    @Override
+    public void execute(TaskList tasks) throws RobertException {
+        if (!tasks.redo()) {
+            throw new RobertException("My apologies, sir, but there is nothing to redo.");
+        }
+        size = tasks.size();
+    }
+
+    @Override
+    public void persist(Storage storage, TaskList tasks) throws IOException {
+        storage.record(JournalEntry.redo(), tasks);
+    }
+
+    @Override
+    public String render() {
+        return "Certainly, sir. I have redone your last undone change.\n"
+                + "You now have " + size + " tasks in the list.";
+    }
+}
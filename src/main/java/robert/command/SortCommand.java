@@ -0,0 +1,39 @@
+package robert.command;
+
+import java.io.IOException;
+
+import robert.RobertException;
+import robert.storage.JournalEntry;
+import robert.storage.Storage;
+import robert.task.TaskList;
+
+/**
+ * Sorts all Deadlines by ascending date, placing them first in the list, followed by all
+ * other tasks in their current order. Shows the first page of the sorted list.
+ */
+public class SortCommand extends ListingCommand {
+    private boolean isChanged;
+
+    @Override
+    public void execute(TaskList tasks) throws RobertException {
+        isChanged = tasks.sortDeadlines();
+        show(tasks.snapshot());
+    }
+
+    @Override
+    public void persist(Storage storage, TaskList tasks) throws IOException {
+        if (isChanged) {
+            storage.record(JournalEntry.sort(), tasks);
+        }
+    }
+
+    @Override
+    protected String header() {
+        return "Certainly, sir. Deadlines have now been sorted by date.\nHere is your newly arranged list:";
+    }
+
+    @Override
+    protected String commandForPage(int page) {
+        return page == 0 ? "list all" : "list " + page;
+    }
+}
@@ -0,0 +1,85 @@
+package robert.command;
+
+import java.util.BitSet;
+
+import robert.RobertException;
+import robert.task.TaskList;
+
+/**
+ * Resolves the tasks that a mark, unmark or delete command refers to.
+ */
+final class TaskSelection {
+    private TaskSelection() {
+    }
+
+    /**
+     * Resolves the tasks that a mark, unmark or delete command refers to: "done" for every task
+     * that is done, or a comma-separated list of task numbers, ids and ranges of task numbers,
+     * e.g. "4,#9,12-40". All of them are resolved before any task changes, so later numbers are
+     * not shifted by earlier deletions.
+     *
+     * @param arg   The argument of the command.
+     * @param tasks The task list.
+     * @return The distinct zero-based indexes of the tasks, in increasing order.
+     * @throws RobertException If a part is not a number or range, no such task exists, or no task is done.
+     */
+    static int[] resolve(String arg, TaskList tasks) throws RobertException {
+        if (arg.equalsIgnoreCase("done")) {
+            int[] indexes = tasks.doneIndexes();
+            if (indexes.length == 0) {
+                throw new RobertException("My apologies, sir, but none of your tasks are done yet.");
+            }
+            return indexes;
+        }
+        if (arg.indexOf(',') < 0 && arg.indexOf('-', 1) < 0) {
+            return new int[] {resolveOne(arg, tasks)};
+        }
+        BitSet chosen = new BitSet();
+        for (String part : arg.split(",")) {
+            part = part.trim();
+            int dash = part.indexOf('-');
+            if (dash > 0 && !part.startsWith("#")) {
+                int from = resolveOne(part.substring(0, dash).trim(), tasks);
+                int to = resolveOne(part.substring(dash + 1).trim(), tasks);
+                if (from > to) {
+                    throw new RobertException("Sir, the range " + part + " ends before it starts.");
+                }
+                chosen.set(from, to + 1);
+            } else {
+                chosen.set(resolveOne(part, tasks));
+            }
+        }
+        return chosen.stream().toArray();
+    }
+
+    /**
+     * Resolves one task, either by its number in the list (e.g. "2") or by its id (e.g. "#7").
+     * Ids are looked up in O(log n) and keep referring to the same task after sorting and deleting.
+     *
+     * @param arg   The task number or id.
+     * @param tasks The task list.
+     * @return The zero-based index of the task in the list.
+     * @throws RobertException If the argument is not a number, or no such task exists.
+     */
+    static int resolveOne(String arg, TaskList tasks) throws RobertException {
+        boolean isId = arg.startsWith("#");
+        int value;
+        try {
+            value = Integer.parseInt(isId ? arg.substring(1).trim() : arg);
+        } catch (NumberFormatException e) {
+            throw new RobertException("Sir, '" + arg + "' is not a valid task number.");
+        }
+
+        if (isId) {
+            int index = tasks.indexOfId(value);
+            if (index < 0) {
+                throw new RobertException("I'm afraid there is no task with id #" + value + ", sir.");
+            }
+            return index;
+        }
+        if (value < 1 || value > tasks.size()) {
+            throw new RobertException("That task number is out of range, sir.");
+        }
+        return value - 1;
+    }
+}
@@ -0,0 +1,19 @@
+package robert.command;
+
+import robert.RobertException;
+import robert.parser.ParsedCommand;
+import robert.task.Todo;
+
+/**
+ * Adds a {@code Todo}, e.g. "todo read book".
+ */
+public class TodoCommand extends AddCommand {
+    @Override
+    public void parse(ParsedCommand input) throws RobertException {
+        String description = input.getArgument();
+        if (description.isEmpty()) {
+            throw new RobertException("The description of a todo cannot be empty.");
+        }
+        task = new Todo(description);
+    }
+}
@@ -0,0 +1,36 @@
+package robert.command;
+
+import java.io.IOException;
+
+import robert.RobertException;
+import robert.storage.JournalEntry;
+import robert.storage.Storage;
+import robert.task.TaskList;
+
+/**
+ * Returns the tasks to how they were before the last command that changed them.
+ * The undo is journaled like any other change; see {@link Storage#record} for when the whole
+ * list is saved instead.
+ */
+public class UndoCommand implements Command {
+    private int size;
+
+    @Override
+    public void execute(TaskList tasks) throws RobertException {
+        if (!tasks.undo()) {
+            throw new RobertException("My apologies, sir, but there is nothing left to undo.");
+        }
+        size = tasks.size();
+    }
+
+    @Override
+    public void persist(Storage storage, TaskList tasks) throws IOException {
+        storage.record(JournalEntry.undo(), tasks);
+    }
+
+    @Override
+    public String render() {
+        return "Certainly, sir. I have undone your last change.\n"
+                + "You now have " + size + " tasks in the list.";
+    }
+}
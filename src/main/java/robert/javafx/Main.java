@@ -35,4 +35,13 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        try {
+            robert.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package robert.parser;
+
+import robert.command.CommandType;
+
+/**
+ * The result of tokenizing one line of input with {@link Parser#parse(String, ParsedCommand)}:
+ * the command type and where its argument lies in the line. Parts of the argument are only
+ * copied out of the line when a handler asks for them, and one instance can be reused for
+ * every line.
+ */
+public class ParsedCommand {
+    private String input = "";
+    private CommandType type = CommandType.UNKNOWN;
+    private int argumentStart;
+    private int argumentEnd;
+
+    void set(String input, CommandType type, int argumentStart, int argumentEnd) {
+        this.input = input;
+        this.type = type;
+        this.argumentStart = argumentStart;
+        this.argumentEnd = argumentEnd;
+    }
+
+    public CommandType getType() {
+        return type;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    public int getArgumentStart() {
+        return argumentStart;
+    }
+
+    public int getArgumentEnd() {
+        return argumentEnd;
+    }
+
+    /**
+     * Returns the argument: everything after the command word, without surrounding whitespace.
+     *
+     * @return The argument, empty if there is none.
+     */
+    public String getArgument() {
+        return input.substring(argumentStart, argumentEnd);
+    }
+
+    /**
+     * Returns the position of the first occurrence of the given marker (e.g. "/by") in the
+     * argument at or after {@code from}.
+     *
+     * @param marker The text to look for.
+     * @param from   The position in the input to start looking from.
+     * @return The position of the marker in the input, or -1 if the rest of the argument does not contain it.
+     */
+    public int indexOf(String marker, int from) {
+        int i = input.indexOf(marker, from);
+        return i < 0 || i + marker.length() > argumentEnd ? -1 : i;
+    }
+
+    /**
+     * Returns whether the given region of the input holds only whitespace.
+     *
+     * @param start The position of the first character of the region.
+     * @param end   The position after the last character of the region.
+     * @return True if the region is empty or blank.
+     */
+    public boolean isBlank(int start, int end) {
+        return trimStart(start, end) == end;
+    }
+
+    /**
+     * Returns the given region of the input without surrounding whitespace.
+     *
+     * @param start The position of the first character of the region.
+     * @param end   The position after the last character of the region.
+     * @return The trimmed region.
+     */
+    public String trimmed(int start, int end) {
+        int first = trimStart(start, end);
+        int last = end;
+        while (last > first && Character.isWhitespace(input.charAt(last - 1))) {
+            last--;
+        }
+        return input.substring(first, last);
+    }
+
+    private int trimStart(int start, int end) {
+        while (start < end && Character.isWhitespace(input.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+}
@@ -3,7 +3,7 @@ package robert.parser;
 import robert.command.CommandType;
 
 /**
- * Parses user commands into CommandType enums.
+ * Parses user commands into CommandType enums, or into reusable ParsedCommands.
  */
 public class Parser {
     /**
@@ -13,11 +13,43 @@ public class Parser {
      * @return A CommandType enum representing the command.
      */
     public static CommandType parse(String fullCommand) {
+        return parse(fullCommand, new ParsedCommand()).getType();
+    }
+
+    /**
+     * Tokenizes a full command string in a single pass, without creating any strings: the
+     * command word is the first run of non-whitespace characters and is matched in place, and
+     * the argument is the rest of the line without surrounding whitespace. A blank line is an
+     * UNKNOWN command.
+     *
+     * @param fullCommand The full user input string.
+     * @param result      The object to fill in, which may have been used for an earlier line.
+     * @return The filled-in {@code result}.
+     */
+    public static ParsedCommand parse(String fullCommand, ParsedCommand result) {
         assert fullCommand != null : "Parser.parse(...) received null fullCommand";
-        if (fullCommand.trim().isEmpty()) {
-            return CommandType.UNKNOWN;
+        int length = fullCommand.length();
+        int wordStart = 0;
+        while (wordStart < length && Character.isWhitespace(fullCommand.charAt(wordStart))) {
+            wordStart++;
+        }
+        if (wordStart == length) {
+            result.set(fullCommand, CommandType.UNKNOWN, length, length);
+            return result;
+        }
+        int wordEnd = wordStart;
+        while (wordEnd < length && !Character.isWhitespace(fullCommand.charAt(wordEnd))) {
+            wordEnd++;
+        }
+        int argumentStart = wordEnd;
+        while (argumentStart < length && Character.isWhitespace(fullCommand.charAt(argumentStart))) {
+            argumentStart++;
+        }
+        int argumentEnd = length;
+        while (argumentEnd > argumentStart && Character.isWhitespace(fullCommand.charAt(argumentEnd - 1))) {
+            argumentEnd--;
         }
-        String[] parts = fullCommand.split(" ", 2);
-        return CommandType.parseCommand(parts[0]);
+        result.set(fullCommand, CommandType.parseCommand(fullCommand, wordStart, wordEnd), argumentStart, argumentEnd);
+        return result;
     }
 }
@@ -0,0 +1,144 @@
+package robert.parser;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+
+import robert.RobertException;
+import robert.task.Deadline;
+import robert.task.Event;
+import robert.task.Task;
+import robert.task.TaskQuery;
+import robert.task.Todo;
+
+/**
+ * Parses the argument of the find command into a TaskQuery.
+ *
+ * <p>A query consists of words, "quoted phrases" and filters of the form {@code key:value}:
+ * {@code type:todo|deadline|event}, {@code done:yes|no}, {@code before:yyyy-mm-dd} and
+ * {@code after:yyyy-mm-dd}. Descriptions must contain every word and phrase. A query without
+ * filters or quotes is searched for as a whole, as find always did, so "find read book" still
+ * only finds descriptions containing "read book".
+ */
+public class QueryParser {
+    /**
+     * Parses the given query.
+     *
+     * @param query The argument of the find command, not blank.
+     * @return The parsed query.
+     * @throws RobertException If a quote is not closed or a filter has an invalid value.
+     */
+    public static TaskQuery parse(String query) throws RobertException {
+        assert !query.isBlank() : "QueryParser.parse(...) received a blank query";
+        TaskQuery result = new TaskQuery();
+        ArrayList<String> words = new ArrayList<>();
+        boolean isPlain = true;
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '"') {
+                int end = query.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new RobertException("Sir, the quote in your search is never closed.");
+                }
+                String phrase = query.substring(i + 1, end);
+                if (!phrase.isBlank()) {
+                    result.addText(phrase);
+                }
+                isPlain = false;
+                i = end + 1;
+                continue;
+            }
+            int end = i;
+            while (end < query.length() && !Character.isWhitespace(query.charAt(end))) {
+                end++;
+            }
+            String token = query.substring(i, end);
+            if (applyFilter(token, result)) {
+                isPlain = false;
+            } else {
+                words.add(token);
+            }
+            i = end;
+        }
+
+        if (isPlain) {
+            TaskQuery whole = new TaskQuery();
+            whole.addText(query.trim());
+            return whole;
+        }
+        for (String word : words) {
+            result.addText(word);
+        }
+        return result;
+    }
+
+    /**
+     * Applies the given token to the query if it is a filter.
+     *
+     * @return False if the token is not a filter but a word to search for.
+     */
+    private static boolean applyFilter(String token, TaskQuery query) throws RobertException {
+        int colon = token.indexOf(':');
+        if (colon < 0) {
+            return false;
+        }
+        String key = token.substring(0, colon).toLowerCase();
+        String value = token.substring(colon + 1).toLowerCase();
+        switch (key) {
+        case "type":
+            query.setType(parseType(value));
+            return true;
+        case "done":
+            query.setDone(parseDone(value));
+            return true;
+        case "before":
+            query.setBefore(parseDate(token.substring(colon + 1)));
+            return true;
+        case "after":
+            query.setAfter(parseDate(token.substring(colon + 1)));
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static Class<? extends Task> parseType(String value) throws RobertException {
+        switch (value) {
+        case "todo":
+            return Todo.class;
+        case "deadline":
+            return Deadline.class;
+        case "event":
+            return Event.class;
+        default:
+            throw new RobertException("Sir, '" + value + "' is not a type of task. "
+                    + "Please use todo, deadline or event.");
+        }
+    }
+
+    private static boolean parseDone(String value) throws RobertException {
+        switch (value) {
+        case "yes":
+        case "true":
+            return true;
+        case "no":
+        case "false":
+            return false;
+        default:
+            throw new RobertException("Sir, please use done:yes or done:no.");
+        }
+    }
+
+    private static LocalDate parseDate(String value) throws RobertException {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RobertException("Sir, '" + value + "' is not a valid date. Please use the format yyyy-mm-dd.");
+        }
+    }
+}
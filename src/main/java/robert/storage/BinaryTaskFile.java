@@ -0,0 +1,242 @@
+package robert.storage;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import robert.task.Deadline;
+import robert.task.DescriptionPool;
+import robert.task.Event;
+import robert.task.Task;
+import robert.task.Todo;
+
+/**
+ * Reads and writes the compact binary task format.
+ *
+ * <p>The file starts with a header of the magic bytes {@code RBTF}, a version byte, the
+ * number of tasks as a 4-byte int and the next task id as a 4-byte int. Each task follows as
+ * a tag byte (type in the low bits, done flag in the high bit), its id and a length-prefixed
+ * UTF-8 description. Deadlines add their date as a 4-byte epoch day; events add their start
+ * and end as length-prefixed strings. Ids and lengths are unsigned varints, so small values
+ * cost a single byte. Version 1 files, which have no ids, can still be read.
+ * Unlike the text format, descriptions may contain any character, including '|'.
+ */
+class BinaryTaskFile {
+    static final int VERSION = 2;
+
+    private static final int VERSION_WITHOUT_IDS = 1;
+    private static final byte[] MAGIC = {'R', 'B', 'T', 'F'};
+    private static final int HEADER_SIZE = MAGIC.length + 1 + 4;
+    private static final int HEADER_SIZE_WITH_IDS = HEADER_SIZE + 4;
+    private static final int TYPE_TODO = 1;
+    private static final int TYPE_DEADLINE = 2;
+    private static final int TYPE_EVENT = 3;
+    private static final int TYPE_MASK = 0x7f;
+    private static final int DONE_BIT = 0x80;
+
+    private final ByteBuffer buf;
+    private int position;
+    private boolean hasIds;
+    private byte[] scratch = new byte[256];
+
+    private BinaryTaskFile(ByteBuffer buf) {
+        this.buf = buf;
+    }
+
+    /**
+     * Returns whether the given file starts with the binary format's magic bytes.
+     *
+     * @param path The file to check.
+     * @return True if the file is in the binary format.
+     * @throws IOException If an I/O error occurs.
+     */
+    static boolean isBinary(Path path) throws IOException {
+        byte[] head = new byte[MAGIC.length];
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.readNBytes(head, 0, head.length) == head.length && Arrays.equals(head, MAGIC);
+        }
+    }
+
+    /**
+     * Reads the next task id from the header of a binary task file.
+     *
+     * @param path The binary task file.
+     * @return The next id recorded in the header, or 0 if the file predates task ids.
+     * @throws IOException If an I/O error occurs.
+     */
+    static int readNextId(Path path) throws IOException {
+        byte[] head = new byte[HEADER_SIZE_WITH_IDS];
+        try (InputStream in = Files.newInputStream(path)) {
+            if (in.readNBytes(head, 0, head.length) < head.length || head[MAGIC.length] < VERSION) {
+                return 0;
+            }
+        }
+        return ByteBuffer.wrap(head).getInt(HEADER_SIZE);
+    }
+
+    /**
+     * Reads all tasks from a binary task file.
+     *
+     * @param path The binary task file.
+     * @return The tasks in the file, in order.
+     * @throws IOException If the file cannot be read, is truncated, or has an unknown version.
+     */
+    static ArrayList<Task> read(Path path) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE - 8) {
+                throw new IOException("Binary task file is too large: " + path);
+            }
+            // Read rather than mapped: a mapping would keep the file from being replaced on Windows.
+            buf = ByteBuffer.allocate((int) channel.size());
+            while (buf.hasRemaining() && channel.read(buf) >= 0) {
+                // Keep reading until the buffer is full or the file ends.
+            }
+        }
+        buf.flip();
+        return new BinaryTaskFile(buf).readTasks(path);
+    }
+
+    private ArrayList<Task> readTasks(Path path) throws IOException {
+        if (buf.limit() < HEADER_SIZE) {
+            throw new IOException("Binary task file is truncated: " + path);
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buf.get(0, magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a binary task file: " + path);
+        }
+        int version = buf.get(MAGIC.length);
+        if (version != VERSION && version != VERSION_WITHOUT_IDS) {
+            throw new IOException("Unsupported binary task file version " + version + ": " + path);
+        }
+        hasIds = version != VERSION_WITHOUT_IDS;
+        if (hasIds && buf.limit() < HEADER_SIZE_WITH_IDS) {
+            throw new IOException("Binary task file is truncated: " + path);
+        }
+        int count = buf.getInt(MAGIC.length + 1);
+        position = hasIds ? HEADER_SIZE_WITH_IDS : HEADER_SIZE;
+
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                tasks.add(readTask());
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Binary task file is truncated: " + path, e);
+        }
+        return tasks;
+    }
+
+    private Task readTask() throws IOException {
+        int tag = buf.get(position++) & 0xff;
+        int id = hasIds ? readVarint() : 0;
+        String description = DescriptionPool.shared().intern(readString());
+        Task task;
+        switch (tag & TYPE_MASK) {
+        case TYPE_TODO:
+            task = new Todo(description);
+            break;
+        case TYPE_DEADLINE:
+            task = new Deadline(description, LocalDate.ofEpochDay(buf.getInt(position)));
+            position += 4;
+            break;
+        case TYPE_EVENT:
+            task = new Event(description, readString(), readString());
+            break;
+        default:
+            throw new IOException("Unknown task type " + (tag & TYPE_MASK) + " at byte " + position);
+        }
+        if ((tag & DONE_BIT) != 0) {
+            task = task.withDone(true);
+        }
+        if (id > 0) {
+            task.setId(id);
+        }
+        return task;
+    }
+
+    private int readVarint() {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buf.get(position++) & 0xff;
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private String readString() {
+        int length = readVarint();
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buf.get(position, scratch, 0, length);
+        position += length;
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the given tasks in the binary format. The stream is not closed.
+     *
+     * @param tasks  The tasks to write.
+     * @param nextId The next task id, written into the header.
+     * @param out    The stream to write to.
+     * @throws IOException If an I/O error occurs.
+     */
+    static void write(List<Task> tasks, int nextId, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(tasks.size());
+        data.writeInt(nextId);
+        for (Task t : tasks) {
+            int done = t.getStatusIcon().equals("X") ? DONE_BIT : 0;
+            if (t instanceof Deadline) {
+                data.writeByte(TYPE_DEADLINE | done);
+                writeVarint(data, t.getId());
+                writeString(data, t.getDescription());
+                data.writeInt((int) ((Deadline) t).getByDate().toEpochDay());
+            } else if (t instanceof Event) {
+                Event e = (Event) t;
+                data.writeByte(TYPE_EVENT | done);
+                writeVarint(data, e.getId());
+                writeString(data, e.getDescription());
+                writeString(data, e.getStartTime());
+                writeString(data, e.getEndTime());
+            } else {
+                data.writeByte(TYPE_TODO | done);
+                writeVarint(data, t.getId());
+                writeString(data, t.getDescription());
+            }
+        }
+        data.flush();
+    }
+
+    private static void writeString(DataOutputStream data, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(data, bytes.length);
+        data.write(bytes);
+    }
+
+    private static void writeVarint(DataOutputStream data, int value) throws IOException {
+        while (value >= 0x80) {
+            data.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte(value);
+    }
+}
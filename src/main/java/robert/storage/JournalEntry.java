@@ -0,0 +1,462 @@
+package robert.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import robert.task.Deadline;
+import robert.task.Event;
+import robert.task.Task;
+import robert.task.TaskList;
+import robert.task.Todo;
+
+/**
+ * Represents a single mutation recorded in the task journal.
+ * Each entry is stored as one line, e.g. "ADD|T|0|read book|7", "MARK|3" or "DELETE|4,9,12-40"; an
+ * added task carries its id as the last field, and a batch lists its indexes with runs written as
+ * ranges. Fields of an added task are percent-escaped ('%', '|', CR and LF), so that any
+ * description survives a round trip through the journal.
+ *
+ * <p>Each line starts with the CRC-32 of the rest of the line, in 8 hex digits and a space, e.g.
+ * "5ff3a7a8 MARK|3". A line torn by a crash mid-write, such as "DELETE|12" left of "DELETE|123",
+ * no longer matches its checksum and is rejected instead of replayed. Lines without a checksum,
+ * written before checksums were added, are still accepted.
+ */
+public class JournalEntry {
+    /**
+     * Represents the kinds of mutations that can be journaled.
+     */
+    public enum Kind {
+        ADD,
+        MARK,
+        UNMARK,
+        DELETE,
+        SORT,
+        UNDO,
+        REDO
+    }
+
+    /** The number of hex digits of the checksum at the start of each line. */
+    private static final int CHECKSUM_LENGTH = 8;
+
+    private final Kind kind;
+    private final Task task;
+    /** The zero-based indexes of the tasks changed, in increasing order; empty unless a task was changed. */
+    private final int[] indexes;
+
+    private JournalEntry(Kind kind, Task task, int[] indexes) {
+        this.kind = kind;
+        this.task = task;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Creates an entry recording that a task was appended to the list.
+     *
+     * @param task The task that was added.
+     * @return The journal entry.
+     */
+    public static JournalEntry add(Task task) {
+        assert task != null : "Cannot journal a null Task";
+        return new JournalEntry(Kind.ADD, task, new int[0]);
+    }
+
+    /**
+     * Creates an entry recording that the task at the given index was marked as done.
+     *
+     * @param index The zero-based index of the task.
+     * @return The journal entry.
+     */
+    public static JournalEntry mark(int index) {
+        return new JournalEntry(Kind.MARK, null, new int[] {index});
+    }
+
+    /**
+     * Creates an entry recording that the task at the given index was marked as not done.
+     *
+     * @param index The zero-based index of the task.
+     * @return The journal entry.
+     */
+    public static JournalEntry unmark(int index) {
+        return new JournalEntry(Kind.UNMARK, null, new int[] {index});
+    }
+
+    /**
+     * Creates an entry recording that the task at the given index was deleted.
+     *
+     * @param index The zero-based index of the task.
+     * @return The journal entry.
+     */
+    public static JournalEntry delete(int index) {
+        return new JournalEntry(Kind.DELETE, null, new int[] {index});
+    }
+
+    /**
+     * Creates an entry recording that the tasks at the given indexes were marked as done in one batch.
+     *
+     * @param indexes The distinct zero-based indexes of the tasks, in increasing order.
+     * @return The journal entry.
+     */
+    public static JournalEntry markAll(int[] indexes) {
+        return new JournalEntry(Kind.MARK, null, indexes.clone());
+    }
+
+    /**
+     * Creates an entry recording that the tasks at the given indexes were marked as not done in one batch.
+     *
+     * @param indexes The distinct zero-based indexes of the tasks, in increasing order.
+     * @return The journal entry.
+     */
+    public static JournalEntry unmarkAll(int[] indexes) {
+        return new JournalEntry(Kind.UNMARK, null, indexes.clone());
+    }
+
+    /**
+     * Creates an entry recording that the tasks at the given indexes were deleted in one batch.
+     *
+     * @param indexes The distinct zero-based indexes of the tasks before the deletion, in increasing order.
+     * @return The journal entry.
+     */
+    public static JournalEntry deleteAll(int[] indexes) {
+        return new JournalEntry(Kind.DELETE, null, indexes.clone());
+    }
+
+    /**
+     * Creates an entry recording that the deadlines in the list were sorted by date.
+     *
+     * @return The journal entry.
+     */
+    public static JournalEntry sort() {
+        return new JournalEntry(Kind.SORT, null, new int[0]);
+    }
+
+    /**
+     * Creates an entry recording that the last step was undone. On replay, the list returns to
+     * the state before the entry that the step recorded, so the journal must contain that entry.
+     *
+     * @return The journal entry.
+     */
+    public static JournalEntry undo() {
+        return new JournalEntry(Kind.UNDO, null, new int[0]);
+    }
+
+    /**
+     * Creates an entry recording that the last undone step was redone.
+     *
+     * @return The journal entry.
+     */
+    public static JournalEntry redo() {
+        return new JournalEntry(Kind.REDO, null, new int[0]);
+    }
+
+    /**
+     * Returns whether this entry undoes or redoes a step rather than changing tasks itself.
+     *
+     * @return True for UNDO and REDO entries.
+     */
+    public boolean isHistoryStep() {
+        return kind == Kind.UNDO || kind == Kind.REDO;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Converts this entry into a single journal line (without line separator), starting with
+     * its checksum.
+     *
+     * @return The journal line.
+     */
+    public String toLine() {
+        String record = toRecord();
+        return checksumOf(record) + " " + record;
+    }
+
+    private String toRecord() {
+        switch (kind) {
+        case ADD:
+            return kind + "|" + encodeTask(task);
+        case SORT:
+        case UNDO:
+        case REDO:
+            return kind.toString();
+        default:
+            return kind + "|" + formatIndexes(indexes);
+        }
+    }
+
+    /**
+     * Writes the given increasing indexes as a comma-separated list, with each run of
+     * consecutive indexes written as a range, e.g. "4,9,12-40".
+     */
+    private static String formatIndexes(int[] indexes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < indexes.length; i++) {
+            int end = i;
+            while (end + 1 < indexes.length && indexes[end + 1] == indexes[end] + 1) {
+                end++;
+            }
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(indexes[i]);
+            if (end > i) {
+                sb.append('-').append(indexes[end]);
+            }
+            i = end;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses a list written by {@link #formatIndexes}.
+     *
+     * @return The indexes, or null if the list is malformed or not increasing.
+     */
+    private static int[] parseIndexes(String list) {
+        int[] indexes = new int[8];
+        int count = 0;
+        for (String part : list.trim().split(",")) {
+            int dash = part.indexOf('-');
+            int from;
+            int to;
+            try {
+                from = Integer.parseInt(dash < 0 ? part : part.substring(0, dash));
+                to = dash < 0 ? from : Integer.parseInt(part.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (from < 0 || to < from || count > 0 && from <= indexes[count - 1]) {
+                return null;
+            }
+            for (int index = from; index <= to; index++) {
+                if (count == indexes.length) {
+                    indexes = Arrays.copyOf(indexes, count * 2);
+                }
+                indexes[count++] = index;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * Parses a journal line back into an entry.
+     *
+     * @param line One line from the journal file, without its line separator.
+     * @return The corresponding entry, or null if the line is malformed or does not match its
+     *     checksum (e.g. torn by a crash mid-write).
+     */
+    public static JournalEntry parse(String line) {
+        if (hasChecksum(line)) {
+            String record = line.substring(CHECKSUM_LENGTH + 1);
+            if (!line.startsWith(checksumOf(record))) {
+                return null;
+            }
+            line = record;
+        }
+        int sep = line.indexOf('|');
+        String head = sep < 0 ? line.trim() : line.substring(0, sep).trim();
+
+        Kind kind;
+        try {
+            kind = Kind.valueOf(head);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        if (kind == Kind.SORT || kind == Kind.UNDO || kind == Kind.REDO) {
+            return new JournalEntry(kind, null, new int[0]);
+        }
+        if (sep < 0) {
+            return null;
+        }
+        String rest = line.substring(sep + 1);
+        if (kind == Kind.ADD) {
+            try {
+                Task t = decodeTask(rest);
+                return t == null ? null : add(t);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        int[] indexes = parseIndexes(rest);
+        return indexes == null ? null : new JournalEntry(kind, null, indexes);
+    }
+
+    /**
+     * Returns the CRC-32 of the UTF-8 bytes of the given record, as 8 lowercase hex digits.
+     */
+    private static String checksumOf(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        String hex = Long.toHexString(crc.getValue());
+        return "00000000".substring(hex.length()) + hex;
+    }
+
+    /**
+     * Returns whether the line starts with 8 hex digits and a space. Records without a checksum
+     * start with the name of their kind, which is never followed by a space.
+     */
+    private static boolean hasChecksum(String line) {
+        if (line.length() <= CHECKSUM_LENGTH || line.charAt(CHECKSUM_LENGTH) != ' ') {
+            return false;
+        }
+        for (int i = 0; i < CHECKSUM_LENGTH; i++) {
+            if (Character.digit(line.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String encodeTask(Task t) {
+        StringBuilder sb = new StringBuilder();
+        String doneFlag = t.getStatusIcon().equals("X") ? "1" : "0";
+        if (t instanceof Deadline) {
+            sb.append("D|").append(doneFlag).append('|').append(escape(t.getDescription()))
+                    .append('|').append(((Deadline) t).getByDate());
+        } else if (t instanceof Event) {
+            Event e = (Event) t;
+            sb.append("E|").append(doneFlag).append('|').append(escape(e.getDescription()))
+                    .append('|').append(escape(e.getStartTime()))
+                    .append('|').append(escape(e.getEndTime()));
+        } else {
+            sb.append("T|").append(doneFlag).append('|').append(escape(t.getDescription()));
+        }
+        if (t.getId() > 0) {
+            sb.append('|').append(t.getId());
+        }
+        return sb.toString();
+    }
+
+    private static Task decodeTask(String fields) {
+        String[] parts = fields.split("\\|", -1);
+        if (parts.length < 3) {
+            return null;
+        }
+        Task task;
+        switch (parts[0]) {
+        case "T":
+            task = new Todo(unescape(parts[2]));
+            break;
+        case "D":
+            if (parts.length < 4) {
+                return null;
+            }
+            task = new Deadline(unescape(parts[2]), parts[3].trim());
+            break;
+        case "E":
+            if (parts.length < 5) {
+                return null;
+            }
+            task = new Event(unescape(parts[2]), unescape(parts[3]), unescape(parts[4]));
+            break;
+        default:
+            return null;
+        }
+        if ("1".equals(parts[1])) {
+            task = task.withDone(true);
+        }
+        int idField = task instanceof Todo ? 3 : task instanceof Deadline ? 4 : 5;
+        if (idField < parts.length && parts[idField].matches("\\d{1,9}")) {
+            int id = Integer.parseInt(parts[idField]);
+            if (id > 0) {
+                task.setId(id);
+            }
+        }
+        return task;
+    }
+
+    /**
+     * Percent-escapes '%', '|', CR and LF in the given field, so that it fits in one field of a line.
+     */
+    static String escape(String field) {
+        StringBuilder sb = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            switch (c) {
+            case '%':
+            case '|':
+            case '\r':
+            case '\n':
+                sb.append('%').append(String.format("%02X", (int) c));
+                break;
+            default:
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reverses {@link #escape(String)}. A '%' that is not followed by two hex digits is kept as is.
+     */
+    static String unescape(String field) {
+        if (field.indexOf('%') < 0) {
+            return field;
+        }
+        StringBuilder sb = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            boolean isEscape = c == '%' && i + 2 < field.length()
+                    && isHex(field.charAt(i + 1)) && isHex(field.charAt(i + 2));
+            if (isEscape) {
+                sb.append((char) Integer.parseInt(field.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isHex(char c) {
+        return Character.digit(c, 16) >= 0;
+    }
+
+    /**
+     * Replays this entry on the given task list.
+     * Indexes that no longer fit the list (e.g. out of range) are ignored. UNDO and REDO entries
+     * need the list to have been {@linkplain TaskList#checkpoint checkpointed} after every entry
+     * before them; they are ignored if there is nothing to undo or redo.
+     *
+     * @param tasks The task list to apply the mutation to.
+     */
+    public void applyTo(TaskList tasks) {
+        if (kind == Kind.ADD) {
+            tasks.add(task);
+            return;
+        }
+        if (kind == Kind.SORT) {
+            tasks.sortDeadlines();
+            return;
+        }
+        if (kind == Kind.UNDO) {
+            tasks.undo();
+            return;
+        }
+        if (kind == Kind.REDO) {
+            tasks.redo();
+            return;
+        }
+        int[] valid = Arrays.stream(indexes).filter(i -> i < tasks.size()).toArray();
+        if (valid.length == 0) {
+            return;
+        }
+        switch (kind) {
+        case MARK:
+            tasks.setDoneAll(valid, true);
+            break;
+        case UNMARK:
+            tasks.setDoneAll(valid, false);
+            break;
+        case DELETE:
+            tasks.removeAll(valid);
+            break;
+        default:
+            break;
+        }
+    }
+}
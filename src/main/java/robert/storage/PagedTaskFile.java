@@ -0,0 +1,287 @@
+package robert.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import robert.task.Task;
+import robert.task.TaskSource;
+
+/**
+ * Serves tasks from a text task file page by page, for a paged {@link robert.task.TaskList}.
+ *
+ * <p>An offset index records where every page of {@value #PAGE_SIZE} tasks starts in the file.
+ * The index is kept next to the task file as {@code <file>.idx} and rebuilt whenever the task
+ * file's size or modification time no longer match. Decoded pages are kept in a bounded
+ * least-recently-used cache. Lines with invalid deadline dates are skipped. Tasks without an
+ * id get one from their record number, which is stable because task files are never modified
+ * in place: in files written before tasks had ids, the record number plus one, and in files
+ * with ids, the next id recorded in the header plus the record number, so that they stay
+ * clear of the ids given explicitly.
+ *
+ * <p>The file is only ever read through its channel, never mapped. Before a new snapshot
+ * replaces it, {@link #moveTo} moves it aside with the channel closed, so that the replacement
+ * also works on Windows, where an open or mapped file cannot be replaced.
+ */
+class PagedTaskFile implements TaskSource, AutoCloseable {
+    static final int PAGE_SIZE = 256;
+
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int INDEX_MAGIC = 0x52425449;
+    private static final int INDEX_VERSION = 2;
+
+    private Path path;
+    private FileChannel channel;
+    private final long fileSize;
+    private final int recordCount;
+    private final boolean hasIds;
+    private final boolean isEscaped;
+    private final int firstImplicitId;
+    private final int nextId;
+    private final long[] pageOffsets;
+    private final Map<Integer, Task[]> cache;
+
+    private PagedTaskFile(Path path, FileChannel channel, long fileSize, int headerNextId, boolean isEscaped,
+            long[] index, int maxCachedPages) {
+        this.path = path;
+        this.channel = channel;
+        this.fileSize = fileSize;
+        this.recordCount = (int) index[0];
+        this.hasIds = headerNextId > 0;
+        this.isEscaped = isEscaped;
+        this.firstImplicitId = hasIds ? headerNextId : 1;
+        this.nextId = Math.max(headerNextId, firstImplicitId + (int) index[1] + 1);
+        this.pageOffsets = Arrays.copyOfRange(index, 2, index.length);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Task[]> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    /**
+     * Opens the given text task file, reading its offset index or building (and saving) a new one.
+     *
+     * @param path           The text task file.
+     * @param maxCachedPages The maximum number of decoded pages kept in memory.
+     * @return The paged task file.
+     * @throws IOException If an I/O error occurs.
+     */
+    static PagedTaskFile open(Path path, int maxCachedPages) throws IOException {
+        assert maxCachedPages > 0 : "The page cache must hold at least one page";
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            Path indexPath = Paths.get(path + INDEX_SUFFIX);
+
+            int headerNextId = TaskFileParser.readNextId(path);
+            long[] index = readIndex(indexPath, size, modified);
+            if (index == null) {
+                index = buildIndex(channel, headerNextId > 0);
+                writeIndex(indexPath, size, modified, index);
+            }
+            boolean isEscaped = TaskFileParser.isEscaped(path);
+            return new PagedTaskFile(path, channel, size, headerNextId, isEscaped, index, maxCachedPages);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Scans the file for task lines and returns the record count, the last record without an
+     * id (or -1), and the offset of the first line of every page.
+     */
+    private static long[] buildIndex(FileChannel channel, boolean hasIds) throws IOException {
+        IndexBuilder builder = new IndexBuilder(hasIds);
+        TaskFileParser.readWindows(channel, builder);
+        long[] index = new long[builder.pages + 2];
+        index[0] = builder.count;
+        index[1] = builder.lastRecordWithoutId;
+        System.arraycopy(builder.offsets, 0, index, 2, builder.pages);
+        return index;
+    }
+
+    /**
+     * Counts the task lines of each window, records where every page starts and notes the
+     * last task that has no id.
+     */
+    private static class IndexBuilder implements TaskFileParser.WindowHandler {
+        private final TaskFileParser parser;
+        private long[] offsets = new long[16];
+        private int pages;
+        private int count;
+        private int lastRecordWithoutId = -1;
+
+        IndexBuilder(boolean hasIds) {
+            parser = new TaskFileParser(true, hasIds, false);
+        }
+
+        @Override
+        public void handle(ByteBuffer buf, long position, int end) {
+            int lineStart = 0;
+            for (int i = 0; i <= end; i++) {
+                byte b = i < end ? buf.get(i) : (byte) '\n';
+                if (b != '\n' && b != '\r') {
+                    continue;
+                }
+                if (i > lineStart && parser.isTask(buf, lineStart, i)) {
+                    if (count % PAGE_SIZE == 0) {
+                        if (pages == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, pages * 2);
+                        }
+                        offsets[pages++] = position + lineStart;
+                    }
+                    if (parser.lastTaskId(buf) == 0) {
+                        lastRecordWithoutId = count;
+                    }
+                    count++;
+                }
+                if (b == '\r' && i + 1 < end && buf.get(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Reads a saved index, or returns null if there is none or it does not match the task file.
+     */
+    private static long[] readIndex(Path indexPath, long size, long modified) {
+        if (!Files.exists(indexPath)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION || in.readInt() != PAGE_SIZE
+                    || in.readLong() != size || in.readLong() != modified) {
+                return null;
+            }
+            int count = in.readInt();
+            int lastRecordWithoutId = in.readInt();
+            int pages = in.readInt();
+            long[] index = new long[pages + 2];
+            index[0] = count;
+            index[1] = lastRecordWithoutId;
+            for (int i = 2; i < index.length; i++) {
+                index[i] = in.readLong();
+            }
+            return index;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeIndex(Path indexPath, long size, long modified, long[] index) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(PAGE_SIZE);
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeInt((int) index[0]);
+            out.writeInt((int) index[1]);
+            out.writeInt(index.length - 2);
+            for (int i = 2; i < index.length; i++) {
+                out.writeLong(index[i]);
+            }
+        } catch (IOException e) {
+            // The index is only a cache; it will be rebuilt on the next start.
+        }
+    }
+
+    @Override
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Returns an id past every id in the file, given explicitly or from a record number.
+     *
+     * @return The next id to hand out.
+     */
+    int getNextId() {
+        return nextId;
+    }
+
+    @Override
+    public synchronized Task get(int record) {
+        if (record < 0 || record >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + record + " out of bounds for length " + recordCount);
+        }
+        int page = record / PAGE_SIZE;
+        Task[] tasks = cache.get(page);
+        if (tasks == null) {
+            try {
+                tasks = readPage(page);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            cache.put(page, tasks);
+        }
+        return tasks[record % PAGE_SIZE];
+    }
+
+    private Task[] readPage(int page) throws IOException {
+        long start = pageOffsets[page];
+        long end = page + 1 < pageOffsets.length ? pageOffsets[page + 1] : fileSize;
+        ByteBuffer buf = ByteBuffer.allocate((int) (end - start));
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, start + buf.position()) < 0) {
+                throw new IOException("Task file changed while paging through it");
+            }
+        }
+        ArrayList<Task> tasks = new ArrayList<>(PAGE_SIZE);
+        new TaskFileParser(true, hasIds, isEscaped).parseLines(buf, 0, buf.limit(), tasks);
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getId() == 0) {
+                tasks.get(i).setId(firstImplicitId + page * PAGE_SIZE + i);
+            }
+        }
+        return tasks.toArray(new Task[0]);
+    }
+
+    /**
+     * Returns the file that tasks are currently read from.
+     *
+     * @return The path of the file.
+     */
+    synchronized Path getPath() {
+        return path;
+    }
+
+    /**
+     * Moves the file to the given path, closing the channel for the move and reopening it
+     * afterwards. The contents do not change, so the offset index stays valid.
+     *
+     * @param target The new path of the file; an existing file there is replaced.
+     * @throws IOException If the file cannot be moved or reopened.
+     */
+    synchronized void moveTo(Path target) throws IOException {
+        channel.close();
+        Files.move(path, target, StandardCopyOption.REPLACE_EXISTING);
+        path = target;
+        channel = FileChannel.open(target, StandardOpenOption.READ);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
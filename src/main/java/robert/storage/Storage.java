@@ -1,133 +1,726 @@
 package robert.storage;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import robert.task.Deadline;
+import robert.task.DescriptionPool;
 import robert.task.Event;
 import robert.task.Task;
+import robert.task.TaskList;
 import robert.task.Todo;
 
 /**
  * Deals with loading tasks from a file and saving tasks to a file.
+ * In journaled mode, each mutation is appended to a journal file next to the
+ * snapshot instead of rewriting the whole snapshot. Once the journal grows past a
+ * threshold, a compacted snapshot is written on a background thread and the journal
+ * is truncated, so startup replay stays bounded by the size of the snapshot.
+ *
+ * <p>Compaction never leaves the files in a state that loses or double-applies entries:
+ * the journal is first renamed to {@code <file>.journal.old} (new entries go to a fresh
+ * journal), the snapshot is written to {@code <file>.tmp} and forced to disk, the old
+ * journal is deleted, and only then is the temporary file moved over the snapshot.
+ * {@link #load()} finishes or rolls back an interrupted compaction.
+ *
+ * <p>With write-behind enabled, journal entries are queued in memory and written together
+ * in one append once a batch fills up or a delay has passed, whichever comes first. At most
+ * one batch (or the entries of one delay window) can be lost in a crash; {@link #flush()}
+ * writes any queued entries immediately.
+ *
+ * <p>Snapshots are written in the configured {@link StorageFormat}; {@link #load()} detects
+ * the format of an existing file by its header, so switching formats needs no conversion step.
+ * A binary file switches the storage to the binary format, so that it is never rewritten as text.
+ * Text snapshots percent-escape their fields like journal entries, so any description fits.
+ * Snapshots in either format keep every task's id and the next id to hand out, so ids stay
+ * stable across restarts; files written before tasks had ids get fresh ids on load.
  */
 public class Storage {
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String COMPACTING_SUFFIX = ".journal.old";
+    private static final String SNAPSHOT_TMP_SUFFIX = ".tmp";
+    /** Where a paged task file is moved before a new snapshot replaces it. */
+    private static final String PAGED_SUFFIX = ".paged";
+    private static final int DEFAULT_MAX_JOURNAL_ENTRIES = 10_000;
+    private static final long DEFAULT_MAX_JOURNAL_BYTES = 1L << 20;
+    private static final long DEFAULT_PAGING_THRESHOLD = 64L << 20;
+    private static final int DEFAULT_MAX_CACHED_PAGES = 64;
+
     private String filePath;
+    private final boolean isJournaled;
+    private StorageFormat format = StorageFormat.TEXT;
+    private int maxJournalEntries = DEFAULT_MAX_JOURNAL_ENTRIES;
+    private long maxJournalBytes = DEFAULT_MAX_JOURNAL_BYTES;
+    private int journalEntries;
+    private long journalBytes;
+    private ExecutorService compactor;
+    private Future<?> compaction;
+
+    private final Object journalLock = new Object();
+    private final StringBuilder pendingLines = new StringBuilder();
+    private int pendingEntries;
+    private int maxBatchEntries = 1;
+    private long maxBatchDelayMillis;
+    private long pagingThreshold = DEFAULT_PAGING_THRESHOLD;
+    private int maxCachedPages = DEFAULT_MAX_CACHED_PAGES;
+    private PagedTaskFile pagedFile;
+    private boolean isColumnar;
+    private boolean isDeferred;
+    private boolean hasUnsavedChanges;
+    /** The step of the list's history that the current journal starts from; earlier steps cannot be replayed. */
+    private long journalBaseStep = Long.MAX_VALUE;
+    /** The number of undone steps that replaying the current journal could redo. */
+    private int redoableSteps;
+
+    private ScheduledExecutorService flusher;
+    private ScheduledFuture<?> scheduledFlush;
+    private IOException flushFailure;
 
     /**
      * Constructs a Storage object with the specified file path.
+     * Every recorded mutation rewrites the whole file.
      *
      * @param filePath The path of the file where tasks will be stored and loaded from.
      */
     public Storage(String filePath) {
+        this(filePath, false);
+    }
+
+    /**
+     * Constructs a Storage object with the specified file path and persistence mode.
+     *
+     * @param filePath    The path of the file where tasks will be stored and loaded from.
+     * @param isJournaled Whether mutations are appended to a journal instead of rewriting the file.
+     */
+    public Storage(String filePath, boolean isJournaled) {
+        assert filePath != null : "Storage must have a non-null file path";
         this.filePath = filePath;
+        this.isJournaled = isJournaled;
+    }
+
+    /**
+     * Returns the path of the journal file that accompanies the snapshot file.
+     *
+     * @return The journal file path.
+     */
+    public String getJournalPath() {
+        return filePath + JOURNAL_SUFFIX;
+    }
+
+    /**
+     * Sets how large the journal may grow before a background compaction is started.
+     * Compaction starts once either limit is reached.
+     *
+     * @param maxEntries The maximum number of journal entries.
+     * @param maxBytes   The maximum size of the journal in bytes.
+     */
+    public void setCompactionThreshold(int maxEntries, long maxBytes) {
+        assert maxEntries > 0 && maxBytes > 0 : "Compaction thresholds must be positive";
+        this.maxJournalEntries = maxEntries;
+        this.maxJournalBytes = maxBytes;
+    }
+
+    /**
+     * Sets the format that snapshots are written in from now on. Loading a binary file sets the
+     * binary format again.
+     *
+     * @param format The snapshot format.
+     */
+    public void setFormat(StorageFormat format) {
+        assert format != null : "Storage format cannot be null";
+        this.format = format;
+    }
+
+    /**
+     * Sets how large a text snapshot must be before {@link #loadTaskList()} pages it instead
+     * of decoding it up front, and how many decoded pages of tasks are kept in memory.
+     *
+     * @param minBytes       The smallest snapshot size that is paged.
+     * @param maxCachedPages The maximum number of decoded pages kept in memory.
+     */
+    public void setPaging(long minBytes, int maxCachedPages) {
+        assert minBytes >= 0 && maxCachedPages > 0 : "Paging limits must not be negative";
+        this.pagingThreshold = minBytes;
+        this.maxCachedPages = maxCachedPages;
+    }
+
+    /**
+     * Sets whether tasks that are decoded up front are loaded into a columnar TaskList, which
+     * takes far less memory than one object per task unless many tasks share their descriptions
+     * through the {@link DescriptionPool}. Paged loads are not affected. Off by default; see the
+     * {@code --columnar} option of {@link robert.BatchRunner}.
+     *
+     * @param isColumnar Whether to load columnar TaskLists.
+     */
+    public void setColumnar(boolean isColumnar) {
+        this.isColumnar = isColumnar;
+    }
+
+    /**
+     * Sets whether persistence is deferred. While it is, {@link #record} writes nothing and only
+     * notes that there are unsaved changes; the caller saves the whole list with
+     * {@link #save(TaskList)} when it chooses to, e.g. at the end of a batch of commands.
+     * Changes that are not saved are lost in a crash.
+     *
+     * @param isDeferred Whether recorded mutations wait for the next save.
+     */
+    public void setDeferred(boolean isDeferred) {
+        this.isDeferred = isDeferred;
+    }
+
+    /**
+     * Returns whether mutations have been recorded while persistence was deferred and not saved since.
+     *
+     * @return True if there are unsaved changes.
+     */
+    public boolean hasUnsavedChanges() {
+        return hasUnsavedChanges;
+    }
+
+    /**
+     * Enables write-behind: journal entries are queued and written in a single append once
+     * {@code maxBatch} entries are pending or {@code maxDelayMillis} has passed since the first
+     * pending entry. These two limits bound how many entries can be lost in a crash.
+     *
+     * @param maxBatch       The maximum number of entries written in one append.
+     * @param maxDelayMillis The maximum time an entry may wait before it is written.
+     */
+    public void setWriteBehind(int maxBatch, long maxDelayMillis) {
+        assert isJournaled : "Write-behind requires a journaled Storage";
+        assert maxBatch > 0 && maxDelayMillis > 0 : "Write-behind limits must be positive";
+        synchronized (journalLock) {
+            this.maxBatchEntries = maxBatch;
+            this.maxBatchDelayMillis = maxDelayMillis;
+        }
     }
 
     /**
-     * Loads tasks from the file specified by filePath.
+     * Loads tasks from the file specified by filePath, then replays the journal
+     * (if one exists) on top of it. A text snapshot is read in large windows by the
+     * {@link TaskFileParser}, a binary one through {@link BinaryTaskFile}.
      *
      * @return An ArrayList of Task objects loaded from the file.
      * @throws IOException If an I/O error occurs.
      */
     public ArrayList<Task> load() throws IOException {
-        ArrayList<Task> tasks = new ArrayList<>();
+        return loadTaskList(false).getTasks();
+    }
+
+    /**
+     * Loads tasks like {@link #load()}, but returns them as a TaskList. Text snapshots of at
+     * least the paging threshold are not decoded up front; the TaskList is paged instead and
+     * decodes tasks from the file as they are accessed, so memory stays flat on large archives.
+     *
+     * @return The loaded TaskList.
+     * @throws IOException If an I/O error occurs.
+     */
+    public TaskList loadTaskList() throws IOException {
+        return loadTaskList(true);
+    }
+
+    private TaskList toTaskList(ArrayList<Task> tasks) {
+        return isColumnar ? TaskList.columnar(tasks) : new TaskList(tasks);
+    }
+
+    private TaskList loadTaskList(boolean canPage) throws IOException {
         File f = new File(filePath);
+        boolean wasCompacting = isJournaled && recoverCompaction();
 
+        if (pagedFile == null) {
+            Files.deleteIfExists(Paths.get(filePath + PAGED_SUFFIX));
+        }
+        TaskList tasks;
         if (!f.exists()) {
-            f.getParentFile().mkdirs();
+            File folder = f.getAbsoluteFile().getParentFile();
+            if (folder != null) {
+                folder.mkdirs();
+            }
             f.createNewFile();
+            tasks = toTaskList(new ArrayList<>());
+        } else if (BinaryTaskFile.isBinary(f.toPath())) {
+            format = StorageFormat.BINARY;
+            tasks = toTaskList(BinaryTaskFile.read(f.toPath()));
+            tasks.advanceNextId(BinaryTaskFile.readNextId(f.toPath()));
+        } else if (canPage && f.length() >= pagingThreshold) {
+            if (pagedFile != null) {
+                pagedFile.close();
+                Files.deleteIfExists(Paths.get(filePath + PAGED_SUFFIX));
+            }
+            pagedFile = PagedTaskFile.open(f.toPath(), maxCachedPages);
+            tasks = TaskList.paged(pagedFile);
+            tasks.advanceNextId(pagedFile.getNextId());
+        } else {
+            tasks = toTaskList(TaskFileParser.read(f.toPath()));
+            tasks.advanceNextId(TaskFileParser.readNextId(f.toPath()));
+        }
+
+        if (!isJournaled) {
             return tasks;
         }
+        List<JournalEntry> entries = readJournal(new File(filePath + COMPACTING_SUFFIX));
+        entries.addAll(readJournal(new File(getJournalPath())));
+        replay(entries, tasks);
+        journalEntries = entries.size();
+        journalBytes = new File(getJournalPath()).length();
+        journalBaseStep = tasks.currentStep();
+        redoableSteps = 0;
+        if (wasCompacting) {
+            save(tasks);
+        }
+        return tasks;
+    }
 
-        try (Scanner sc = new Scanner(f)) {
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine();
-                Task t = parseTaskLine(line);
-                if (t != null) {
-                    tasks.add(t);
-                }
+    /**
+     * Brings the files back to a consistent state after a compaction was interrupted.
+     * If the old journal still exists, the temporary snapshot may be incomplete and is discarded.
+     * Otherwise, a temporary snapshot is complete and only needs to be moved into place.
+     *
+     * @return True if an old journal remains and must be replayed before the current journal.
+     * @throws IOException If an I/O error occurs.
+     */
+    private boolean recoverCompaction() throws IOException {
+        Path tmp = Paths.get(filePath + SNAPSHOT_TMP_SUFFIX);
+        if (Files.exists(Paths.get(filePath + COMPACTING_SUFFIX))) {
+            Files.deleteIfExists(tmp);
+            return true;
+        }
+        if (Files.exists(tmp)) {
+            Files.move(tmp, Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        return false;
+    }
+
+    /**
+     * Reads every well-formed entry in the given journal file, in order.
+     * Only lines ending in a line break count: a last line without one was torn by a crash
+     * mid-write, so it is skipped and cut off the file, and the next entry starts on a line of its
+     * own. Lines that do not match their checksum are skipped as well.
+     *
+     * @param journal The journal file to read.
+     * @return The entries, or an empty list if the journal does not exist.
+     * @throws IOException If an I/O error occurs.
+     */
+    private List<JournalEntry> readJournal(File journal) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        if (!journal.exists()) {
+            return entries;
+        }
+        byte[] bytes = Files.readAllBytes(journal.toPath());
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end < bytes.length) {
+            try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+            }
+        }
+        int start = 0;
+        for (int i = 0; i < end; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            int lineEnd = i > start && bytes[i - 1] == '\r' ? i - 1 : i;
+            JournalEntry entry = JournalEntry.parse(new String(bytes, start, lineEnd - start, StandardCharsets.UTF_8));
+            if (entry != null) {
+                entries.add(entry);
             }
+            start = i + 1;
         }
+        return entries;
+    }
 
-        return tasks;
+    /**
+     * Applies the given entries to the tasks loaded from the snapshot, in order. If any of them
+     * undoes or redoes a step, the list is checkpointed after every entry, as it was when the
+     * entries were recorded, so that the step can be found. The history is cleared afterwards;
+     * it starts again from the loaded tasks.
+     */
+    private static void replay(List<JournalEntry> entries, TaskList tasks) {
+        boolean hasHistorySteps = entries.stream().anyMatch(JournalEntry::isHistoryStep);
+        if (hasHistorySteps) {
+            tasks.checkpoint();
+        }
+        for (JournalEntry entry : entries) {
+            entry.applyTo(tasks);
+            if (hasHistorySteps) {
+                tasks.checkpoint();
+            }
+        }
+        tasks.clearHistory();
     }
 
     /**
-     * Parses a single line from storage into a Task object.
+     * Saves the given list of tasks to the file specified by filePath.
+     * Tasks that do not have an id yet are given one.
+     * In journaled mode the journal is cleared afterwards, since the snapshot now contains its entries.
      *
-     * @param line One line from the tasks file.
-     * @return The corresponding Task object (Todo/Deadline/Event), or null if line is invalid.
+     * @param tasks An ArrayList of Task objects to be saved.
+     * @throws IOException If an I/O error occurs.
      */
-    private Task parseTaskLine(String line) {
-        String[] parts = line.split("\\|");
-        if (parts.length < 3) {
-            return null;
+    public void save(ArrayList<Task> tasks) throws IOException {
+        save(new TaskList(tasks));
+        journalBaseStep = Long.MAX_VALUE;
+    }
+
+    /**
+     * Saves the given TaskList like {@link #save(ArrayList)}, keeping its next id so that
+     * the ids of deleted tasks are not handed out again after a restart.
+     *
+     * @param tasks The TaskList to be saved.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void save(TaskList tasks) throws IOException {
+        save(tasks.snapshot(), tasks.getNextId());
+        journalBaseStep = tasks.currentStep();
+        redoableSteps = 0;
+    }
+
+    private void save(List<Task> tasks, int nextId) throws IOException {
+        hasUnsavedChanges = false;
+        if (!isJournaled) {
+            movePagedFileAside();
+            try (FileOutputStream out = new FileOutputStream(filePath)) {
+                writeTasks(tasks, nextId, out);
+            }
+            return;
         }
+        awaitCompaction();
+        rotateJournal();
+        writeSnapshot(tasks, nextId);
+    }
 
-        String type = parts[0].trim();
-        String doneFlag = parts[1].trim();
+    /**
+     * Persists a single mutation that has already been applied to the given tasks.
+     * In journaled mode only the entry is appended to the journal, so the cost does not
+     * depend on the size of the list. Otherwise the whole list is saved. While persistence is
+     * {@linkplain #setDeferred deferred}, nothing is written.
+     *
+     * <p>An undo or redo is journaled like any other change if replaying the journal would reach
+     * the step it returns to: an undo must not go back past the step the journal starts from,
+     * and a redo must reapply a step undone within the journal. Otherwise the whole list is
+     * saved instead, which starts a new journal.
+     *
+     * @param entry The mutation that was applied.
+     * @param tasks The current list of tasks, after the mutation.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void record(JournalEntry entry, TaskList tasks) throws IOException {
+        if (isDeferred) {
+            hasUnsavedChanges = true;
+            return;
+        }
+        if (!isJournaled) {
+            save(tasks);
+            return;
+        }
+        if (entry.getKind() == JournalEntry.Kind.UNDO) {
+            if (tasks.currentStep() < journalBaseStep) {
+                save(tasks);
+                return;
+            }
+            redoableSteps++;
+        } else if (entry.getKind() == JournalEntry.Kind.REDO) {
+            if (redoableSteps == 0) {
+                save(tasks);
+                return;
+            }
+            redoableSteps--;
+        } else {
+            redoableSteps = 0;
+        }
+        String line = entry.toLine() + System.lineSeparator();
+        boolean isCompactionDue;
+        synchronized (journalLock) {
+            rethrowFlushFailure();
+            pendingLines.append(line);
+            pendingEntries++;
+            journalEntries++;
+            journalBytes += line.length();
+            if (pendingEntries >= maxBatchEntries) {
+                flushPending();
+            } else if (scheduledFlush == null) {
+                scheduleFlush();
+            }
+            isCompactionDue = journalEntries >= maxJournalEntries || journalBytes >= maxJournalBytes;
+        }
+        if (isCompactionDue) {
+            startCompaction(tasks);
+        }
+    }
 
-        Task task = null;
-        switch (type) {
-        case "T":
-            task = new Todo(parts[2].trim());
-            break;
-        case "D":
-            if (parts.length < 4) {
-                return null;
+    /**
+     * Writes any queued journal entries to disk immediately.
+     *
+     * @throws IOException If an I/O error occurs, including one from an earlier background write.
+     */
+    public void flush() throws IOException {
+        synchronized (journalLock) {
+            rethrowFlushFailure();
+            flushPending();
+        }
+    }
+
+    /**
+     * Flushes queued entries, waits for any running compaction and stops the background threads.
+     * Should be called before the application exits.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+            awaitCompaction();
+        } finally {
+            if (flusher != null) {
+                flusher.shutdown();
+            }
+            if (compactor != null) {
+                compactor.shutdown();
             }
-            task = new Deadline(parts[2].trim(), parts[3].trim());
-            break;
-        case "E":
-            if (parts.length < 5) {
-                return null;
+            if (pagedFile != null) {
+                pagedFile.close();
+                Files.deleteIfExists(Paths.get(filePath + PAGED_SUFFIX));
             }
-            task = new Event(parts[2].trim(), parts[3].trim(), parts[4].trim());
-            break;
-        default:
+        }
+    }
+
+    /**
+     * Appends all queued entries to the journal in one write. Must hold journalLock.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void flushPending() throws IOException {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (pendingEntries == 0) {
+            return;
+        }
+        try (FileWriter fw = new FileWriter(getJournalPath(), StandardCharsets.UTF_8, true)) {
+            fw.write(pendingLines.toString());
+        }
+        pendingLines.setLength(0);
+        pendingEntries = 0;
+    }
+
+    /**
+     * Schedules a background flush of the queued entries after the write-behind delay.
+     * Must hold journalLock.
+     */
+    private void scheduleFlush() {
+        if (flusher == null) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "robert-journal-flusher");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        scheduledFlush = flusher.schedule(() -> {
+            synchronized (journalLock) {
+                scheduledFlush = null;
+                try {
+                    flushPending();
+                } catch (IOException e) {
+                    flushFailure = e;
+                }
+            }
+        }, maxBatchDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reports a failure from a background flush to the caller. Must hold journalLock.
+     *
+     * @throws IOException The failure, if there was one.
+     */
+    private void rethrowFlushFailure() throws IOException {
+        if (flushFailure != null) {
+            IOException e = flushFailure;
+            flushFailure = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Starts writing a compacted snapshot of the given tasks on a background thread,
+     * unless a compaction is already running. Only a snapshot of the list is taken
+     * on the calling thread; mark/unmark entries that race with the copy are harmless,
+     * since they are replayed from the fresh journal and set the done flag absolutely.
+     *
+     * @param tasks The current list of tasks.
+     * @throws IOException If the journal cannot be rotated.
+     */
+    private void startCompaction(TaskList tasks) throws IOException {
+        if (compaction != null && !compaction.isDone()) {
+            return;
+        }
+        if (Files.exists(Paths.get(filePath + COMPACTING_SUFFIX))) {
+            // A previous compaction failed; the next load() will finish it.
+            return;
+        }
+        List<Task> snapshot = tasks.snapshot();
+        int nextId = tasks.getNextId();
+        rotateJournal();
+        journalBaseStep = tasks.currentStep();
+        redoableSteps = 0;
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "robert-compactor");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        compaction = compactor.submit(() -> {
+            writeSnapshot(snapshot, nextId);
             return null;
+        });
+    }
+
+    /**
+     * Blocks until any running background compaction has finished.
+     *
+     * @throws IOException If the compaction failed.
+     */
+    public void awaitCompaction() throws IOException {
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for compaction", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Compaction failed", e.getCause());
+        } finally {
+            compaction = null;
         }
+    }
 
-        if ("1".equals(doneFlag)) {
-            task.markAsDone();
+    /**
+     * Moves the current journal aside so that new entries go to a fresh journal.
+     * Queued entries are flushed first, since the snapshot being written already contains them.
+     * The old journal marks a snapshot as in progress until {@link #writeSnapshot} deletes it.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void rotateJournal() throws IOException {
+        Path journal = Paths.get(getJournalPath());
+        Path old = Paths.get(filePath + COMPACTING_SUFFIX);
+        synchronized (journalLock) {
+            flushPending();
+            if (Files.exists(journal)) {
+                Files.move(journal, old, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.createFile(old);
+            }
+            journalEntries = 0;
+            journalBytes = 0;
         }
-        return task;
     }
 
     /**
-     * Saves the given list of tasks to the file specified by filePath.
+     * Writes the given tasks to a temporary snapshot, forces it to disk, deletes the old
+     * journal and then atomically replaces the snapshot file.
      *
-     * @param tasks An ArrayList of Task objects to be saved.
+     * @param tasks  The tasks to write.
+     * @param nextId The next task id to record in the snapshot.
      * @throws IOException If an I/O error occurs.
      */
-    public void save(ArrayList<Task> tasks) throws IOException {
-        FileWriter fw = new FileWriter(filePath);
-        for (Task t : tasks) {
-            fw.write(convertTaskToString(t) + System.lineSeparator());
+    private void writeSnapshot(List<Task> tasks, int nextId) throws IOException {
+        Path tmp = Paths.get(filePath + SNAPSHOT_TMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+            writeTasks(tasks, nextId, out);
+            out.getFD().sync();
+        }
+        Files.delete(Paths.get(filePath + COMPACTING_SUFFIX));
+        movePagedFileAside();
+        Files.move(tmp, Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Moves the file that a paged list reads its tasks from out of the way of a new snapshot,
+     * if it is still the task file. The paged list keeps reading the old tasks from there,
+     * and the task file itself is left with no open channel, so that it can be replaced even
+     * on Windows. A crash before the snapshot is moved into place is recovered by {@link #load()}.
+     *
+     * @throws IOException If the file cannot be moved.
+     */
+    private void movePagedFileAside() throws IOException {
+        if (pagedFile != null && pagedFile.getPath().equals(Paths.get(filePath))) {
+            pagedFile.moveTo(Paths.get(filePath + PAGED_SUFFIX));
+        }
+    }
+
+    /**
+     * Writes the given tasks to the stream in the configured format. The stream is not closed.
+     *
+     * @param tasks  The tasks to write.
+     * @param nextId The next task id, written into the header.
+     * @param out    The stream to write to.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeTasks(List<Task> tasks, int nextId, OutputStream out) throws IOException {
+        BufferedOutputStream bos = new BufferedOutputStream(out);
+        if (format == StorageFormat.BINARY) {
+            BinaryTaskFile.write(tasks, nextId, bos);
+        } else {
+            Writer w = new OutputStreamWriter(bos, StandardCharsets.UTF_8);
+            w.write(TaskFileParser.NEXT_ID_HEADER + nextId + TaskFileParser.ESCAPED_FLAG);
+            w.write(System.lineSeparator());
+            for (Task t : tasks) {
+                w.write(convertTaskToString(t));
+                w.write(System.lineSeparator());
+            }
+            w.flush();
         }
-        fw.close();
+        bos.flush();
     }
 
     /**
-     * Converts a Task to a storage-friendly string representation.
+     * Converts a Task to a storage-friendly string representation, with its fields percent-escaped
+     * as in {@link JournalEntry}.
      *
      * @param t A Task object (Todo, Deadline, or Event).
      * @return A line to be written into the storage file.
      */
-    private String convertTaskToString(Task t) {
+    static String convertTaskToString(Task t) {
         String doneFlag = t.getStatusIcon().equals("X") ? "1" : "0";
+        String id = t.getId() > 0 ? "|" + t.getId() : "";
 
         if (t instanceof Todo) {
-            return "T|" + doneFlag + "|" + t.getDescription();
+            return "T|" + doneFlag + "|" + JournalEntry.escape(t.getDescription()) + id;
         } else if (t instanceof Deadline) {
             Deadline d = (Deadline) t;
-            return "D|" + doneFlag + "|" + d.getDescription() + "|" + d.getByDate();
+            return "D|" + doneFlag + "|" + JournalEntry.escape(d.getDescription()) + "|" + d.getByDate() + id;
         } else if (t instanceof Event) {
             Event e = (Event) t;
-            return "E|" + doneFlag + "|" + e.getDescription() + "|" + e.getStartTime() + "|" + e.getEndTime();
+            return "E|" + doneFlag + "|" + JournalEntry.escape(e.getDescription())
+                    + "|" + JournalEntry.escape(e.getStartTime()) + "|" + JournalEntry.escape(e.getEndTime()) + id;
         } else {
             return "";
         }
@@ -0,0 +1,36 @@
+package robert.storage;
+
+import java.io.IOException;
+
+import robert.task.TaskList;
+
+/**
+ * Converts task files between the text and binary formats.
+ * The source format is detected from the file itself. See {@link robert.ConvertRunner} for
+ * running a conversion from the command line.
+ */
+public class StorageConverter {
+    /**
+     * Converts the task file at {@code sourcePath} into {@code targetFormat} at {@code targetPath}.
+     * Only the snapshot is converted; call this while the source has no pending journal entries.
+     *
+     * @param sourcePath   The path of the existing task file, in either format.
+     * @param targetPath   The path to write the converted file to.
+     * @param targetFormat The format to convert to.
+     * @return The number of tasks converted.
+     * @throws IOException If either file cannot be read or written.
+     */
+    public static int convert(String sourcePath, String targetPath, StorageFormat targetFormat)
+            throws IOException {
+        Storage source = new Storage(sourcePath);
+        try {
+            TaskList tasks = source.loadTaskList();
+            Storage target = new Storage(targetPath);
+            target.setFormat(targetFormat);
+            target.save(tasks);
+            return tasks.size();
+        } finally {
+            source.close();
+        }
+    }
+}
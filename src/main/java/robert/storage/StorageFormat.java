@@ -0,0 +1,11 @@
+package robert.storage;
+
+/**
+ * Represents the file formats that task snapshots can be written in.
+ */
+public enum StorageFormat {
+    /** Human-readable pipe-delimited lines, e.g. "D|0|return book|2025-01-01". */
+    TEXT,
+    /** Compact, versioned binary records; see {@link BinaryTaskFile}. */
+    BINARY
+}
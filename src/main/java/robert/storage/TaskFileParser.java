@@ -0,0 +1,549 @@
+package robert.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import robert.task.Deadline;
+import robert.task.DescriptionPool;
+import robert.task.Event;
+import robert.task.Task;
+import robert.task.Todo;
+
+/**
+ * Parses the pipe-delimited task file straight from the bytes read into a buffer, a large
+ * window at a time. The file is read rather than memory-mapped, since a mapping stays alive
+ * until it is garbage collected and keeps the file from being replaced on Windows.
+ * Delimiters are found by scanning bytes, so no per-line Strings, regexes or arrays are
+ * created; only the fields that end up in a Task are decoded. Fields are trimmed, a done flag
+ * other than 1 means not done, fields after a task's details are ignored (apart from its id)
+ * and lines with an unknown type or too few fields are skipped.
+ *
+ * <p>The file may start with a header line {@code #|next-id|<n>} that records the next task id
+ * to hand out; {@link #readNextId(Path)} reads it, and the line parser skips it like any
+ * other line that is not a task. Only files with the header were written with ids, so the
+ * field after a task's details is read as its id only in those files. In older files it is
+ * ignored, like any other extra field, even if it happens to be a number. A header that ends
+ * with {@value #ESCAPED_FLAG} marks a file whose fields are percent-escaped like journal fields,
+ * so that descriptions may contain '|' and line breaks; {@link #isEscaped(Path)} reads the flag,
+ * and only fields of such files are unescaped, since older files may contain a literal '%'.
+ *
+ * <p>Large files are split into newline-aligned chunks that are parsed in parallel on the
+ * common fork-join pool and joined back in file order. Files smaller than
+ * {@value #PARALLEL_THRESHOLD} bytes are parsed on the calling thread.
+ */
+class TaskFileParser {
+    /** Largest region of the file that is read into memory at once. */
+    private static final int READ_WINDOW = 1 << 26;
+    /** Smallest file (in bytes) that is worth parsing in parallel. */
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+    /** Smallest chunk (in bytes) handed to a single fork-join task. */
+    private static final int MIN_CHUNK = 1 << 18;
+    private static final int MAX_FIELDS = 6;
+    /** Start of the optional first line that records the next task id. */
+    static final String NEXT_ID_HEADER = "#|next-id|";
+    private static final byte[] NEXT_ID_HEADER_BYTES = NEXT_ID_HEADER.getBytes(StandardCharsets.US_ASCII);
+    /** End of the header line of a file whose fields are percent-escaped. */
+    static final String ESCAPED_FLAG = "|escaped";
+
+    private final int[] fieldStarts = new int[MAX_FIELDS];
+    private final int[] fieldEnds = new int[MAX_FIELDS];
+    private final boolean isLenient;
+    private final boolean hasIds;
+    private final boolean isEscaped;
+    private final DescriptionPool descriptions = DescriptionPool.shared();
+    private int fieldCount;
+    private byte lastType;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Constructs a parser.
+     *
+     * @param isLenient Whether lines with invalid deadline dates are skipped instead of throwing.
+     * @param hasIds    Whether the file has the next-id header, so that tasks are read with ids.
+     * @param isEscaped Whether the header flags the fields as percent-escaped.
+     */
+    TaskFileParser(boolean isLenient, boolean hasIds, boolean isEscaped) {
+        assert hasIds || !isEscaped : "Only files with the next-id header can be escaped";
+        this.isLenient = isLenient;
+        this.hasIds = hasIds;
+        this.isEscaped = isEscaped;
+    }
+
+    /**
+     * Reads and parses every line of the given file.
+     *
+     * @param path The task file.
+     * @return The tasks parsed from the file, skipping invalid lines.
+     * @throws IOException If an I/O error occurs.
+     */
+    static ArrayList<Task> read(Path path) throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        boolean hasIds = readNextId(path) > 0;
+        boolean isEscaped = isEscaped(path);
+        TaskFileParser parser = new TaskFileParser(false, hasIds, isEscaped);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readWindows(channel, (buf, position, end) -> {
+                if (end >= PARALLEL_THRESHOLD) {
+                    parseInParallel(buf, end, hasIds, isEscaped, tasks);
+                } else {
+                    parser.parseLines(buf, 0, end, tasks);
+                }
+            });
+        }
+        return tasks;
+    }
+
+    /**
+     * Handles one window of whole lines read by {@link #readWindows}.
+     */
+    interface WindowHandler {
+        /**
+         * Handles the lines in {@code buf[0, end)}. The buffer is reused for the next window.
+         *
+         * @param buf      The buffer holding the window.
+         * @param position The offset in the file of the first byte of the window.
+         * @param end      The end of the last whole line in the window.
+         * @throws IOException If handling the lines fails.
+         */
+        void handle(ByteBuffer buf, long position, int end) throws IOException;
+    }
+
+    /**
+     * Reads the channel from its start into one reused heap buffer, up to {@value #READ_WINDOW}
+     * bytes at a time, and passes every window of whole lines to the handler in file order.
+     * The partial line at the end of a window starts the next one; the buffer grows if a single
+     * line does not fit. The last window ends at the end of the file, with or without a line break.
+     *
+     * @param channel The channel to read, positioned at its start.
+     * @param handler Receives the windows.
+     * @throws IOException If an I/O error occurs.
+     */
+    static void readWindows(FileChannel channel, WindowHandler handler) throws IOException {
+        readWindows(channel, READ_WINDOW, handler);
+    }
+
+    /**
+     * Reads the channel like {@link #readWindows(FileChannel, WindowHandler)}, starting with
+     * windows of the given size.
+     */
+    static void readWindows(FileChannel channel, int windowSize, WindowHandler handler) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) Math.max(1, Math.min(windowSize, channel.size())));
+        long position = 0;
+        boolean isEnd = false;
+        while (!isEnd) {
+            while (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) {
+                    isEnd = true;
+                    break;
+                }
+            }
+            int length = buf.position();
+            int end = isEnd ? length : lastLineEnd(buf, length);
+            if (!isEnd && end == length && buf.get(length - 1) != '\n') {
+                ByteBuffer larger = ByteBuffer.allocate(buf.capacity() * 2);
+                buf.flip();
+                larger.put(buf);
+                buf = larger;
+                continue;
+            }
+            if (end > 0) {
+                handler.handle(buf, position, end);
+            }
+            position += end;
+            buf.limit(length);
+            buf.position(end);
+            buf.compact();
+        }
+    }
+
+    /**
+     * Reads the next task id from the header line of the given text task file.
+     *
+     * @param path The task file.
+     * @return The next id recorded in the header, or 0 if the file has no header.
+     * @throws IOException If an I/O error occurs.
+     */
+    static int readNextId(Path path) throws IOException {
+        return parseNextId(readHeader(path));
+    }
+
+    private static int parseNextId(String header) {
+        long nextId = 0;
+        for (int i = NEXT_ID_HEADER.length(); i < header.length(); i++) {
+            int d = header.charAt(i) - '0';
+            if (d < 0 || d > 9 || nextId > Integer.MAX_VALUE) {
+                break;
+            }
+            nextId = nextId * 10 + d;
+        }
+        return nextId > Integer.MAX_VALUE ? 0 : (int) nextId;
+    }
+
+    /**
+     * Returns whether the header line of the given text task file flags its fields as escaped.
+     *
+     * @param path The task file.
+     * @return Whether the file has a next-id header ending with {@value #ESCAPED_FLAG}.
+     * @throws IOException If an I/O error occurs.
+     */
+    static boolean isEscaped(Path path) throws IOException {
+        String header = readHeader(path);
+        return header.endsWith(ESCAPED_FLAG) && parseNextId(header) > 0;
+    }
+
+    /**
+     * Returns the next-id header line of the given file without its line break, or "" if the
+     * file does not start with one.
+     */
+    private static String readHeader(Path path) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(NEXT_ID_HEADER_BYTES.length + 11 + ESCAPED_FLAG.length() + 2);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (head.hasRemaining() && channel.read(head) > 0) {
+                // Keep reading until the header fits or the file ends.
+            }
+        }
+        int length = head.position();
+        if (length < NEXT_ID_HEADER_BYTES.length) {
+            return "";
+        }
+        for (int i = 0; i < NEXT_ID_HEADER_BYTES.length; i++) {
+            if (head.get(i) != NEXT_ID_HEADER_BYTES[i]) {
+                return "";
+            }
+        }
+        int end = NEXT_ID_HEADER_BYTES.length;
+        while (end < length && head.get(end) != '\r' && head.get(end) != '\n') {
+            end++;
+        }
+        return new String(head.array(), 0, end, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Parses {@code buf[0, end)} in newline-aligned chunks on the common fork-join pool and
+     * appends the tasks to {@code out} in file order.
+     */
+    private static void parseInParallel(ByteBuffer buf, int end, boolean hasIds, boolean isEscaped,
+            ArrayList<Task> out) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int chunkSize = Math.max(MIN_CHUNK, end / (parallelism * 4) + 1);
+
+        List<ChunkTask> chunks = new ArrayList<>();
+        int from = 0;
+        while (from < end) {
+            int to = from + chunkSize >= end ? end : nextLineStart(buf, from + chunkSize, end);
+            chunks.add(new ChunkTask(buf, from, to, hasIds, isEscaped));
+            from = to;
+        }
+
+        ForkJoinTask.invokeAll(chunks);
+        int total = 0;
+        for (ChunkTask chunk : chunks) {
+            total += chunk.join().size();
+        }
+        out.ensureCapacity(out.size() + total);
+        for (ChunkTask chunk : chunks) {
+            out.addAll(chunk.join());
+        }
+    }
+
+    /**
+     * Parses one newline-aligned chunk of the buffer with its own parser.
+     */
+    private static class ChunkTask extends RecursiveTask<ArrayList<Task>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buf;
+        private final int from;
+        private final int to;
+        private final boolean hasIds;
+        private final boolean isEscaped;
+
+        ChunkTask(ByteBuffer buf, int from, int to, boolean hasIds, boolean isEscaped) {
+            this.buf = buf;
+            this.from = from;
+            this.to = to;
+            this.hasIds = hasIds;
+            this.isEscaped = isEscaped;
+        }
+
+        @Override
+        protected ArrayList<Task> compute() {
+            ArrayList<Task> tasks = new ArrayList<>();
+            new TaskFileParser(false, hasIds, isEscaped).parseLines(buf, from, to, tasks);
+            return tasks;
+        }
+    }
+
+    /**
+     * Returns the offset just past the first newline at or after {@code from}, or {@code end}.
+     */
+    private static int nextLineStart(ByteBuffer buf, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buf.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns the offset just past the last newline in the buffer, or the limit if there is none.
+     */
+    static int lastLineEnd(ByteBuffer buf, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (buf.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Parses all lines in {@code buf[from, to)} and appends the valid tasks to {@code out}.
+     *
+     * @param buf  The buffer holding UTF-8 task lines.
+     * @param from The offset of the first byte of the first line.
+     * @param to   The offset just past the last byte to parse.
+     * @param out  The list the parsed tasks are appended to.
+     */
+    void parseLines(ByteBuffer buf, int from, int to, ArrayList<Task> out) {
+        int lineStart = from;
+        int i = from;
+        while (i < to) {
+            byte b = buf.get(i);
+            if (b == '\n' || b == '\r') {
+                addIfValid(parseLine(buf, lineStart, i), out);
+                if (b == '\r' && i + 1 < to && buf.get(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+            i++;
+        }
+        if (lineStart < to) {
+            addIfValid(parseLine(buf, lineStart, to), out);
+        }
+    }
+
+    private static void addIfValid(Task t, ArrayList<Task> out) {
+        if (t != null) {
+            out.add(t);
+        }
+    }
+
+    /**
+     * Returns whether the line in {@code buf[start, end)} holds a task, without decoding it.
+     * Lines with invalid deadline dates do not count as tasks.
+     *
+     * @param buf   The buffer holding the line.
+     * @param start The offset of the first byte of the line.
+     * @param end   The offset just past the last byte of the line, excluding the line separator.
+     * @return True if parsing the line would produce a task.
+     */
+    boolean isTask(ByteBuffer buf, int start, int end) {
+        byte type = scanLine(buf, start, end);
+        lastType = type;
+        if (type != 'D') {
+            return type != 0;
+        }
+        try {
+            parseDateField(buf, 3);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the id of the task on the line that {@link #isTask} last found to hold a task.
+     *
+     * @param buf The buffer holding the line.
+     * @return The id, or 0 if the task has none or the file has no ids.
+     */
+    int lastTaskId(ByteBuffer buf) {
+        return readId(buf, lastType);
+    }
+
+    /**
+     * Splits the line in {@code buf[start, end)} into fields. Mirrors {@code line.split("\\|")}:
+     * trailing empty fields do not count towards the number of fields.
+     *
+     * @return The task type ('T', 'D' or 'E'), or 0 if the line is invalid.
+     */
+    private byte scanLine(ByteBuffer buf, int start, int end) {
+        fieldCount = 0;
+        int fieldIndex = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && buf.get(i) != '|') {
+                continue;
+            }
+            if (fieldIndex < MAX_FIELDS) {
+                fieldStarts[fieldIndex] = fieldStart;
+                fieldEnds[fieldIndex] = i;
+            }
+            fieldIndex++;
+            if (i > fieldStart) {
+                fieldCount = fieldIndex;
+            }
+            fieldStart = i + 1;
+        }
+        if (fieldCount < 3) {
+            return 0;
+        }
+
+        trimField(buf, 0);
+        trimField(buf, 1);
+        if (fieldEnds[0] - fieldStarts[0] != 1) {
+            return 0;
+        }
+        byte type = buf.get(fieldStarts[0]);
+        switch (type) {
+        case 'T':
+            return type;
+        case 'D':
+            return fieldCount < 4 ? 0 : type;
+        case 'E':
+            return fieldCount < 5 ? 0 : type;
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * Parses the line in {@code buf[start, end)}.
+     *
+     * @return The parsed task, or null if the line is invalid.
+     */
+    private Task parseLine(ByteBuffer buf, int start, int end) {
+        Task task;
+        byte type = scanLine(buf, start, end);
+        switch (type) {
+        case 'T':
+            task = new Todo(descriptions.intern(decodeField(buf, 2)));
+            break;
+        case 'D':
+            try {
+                task = new Deadline(descriptions.intern(decodeField(buf, 2)), parseDateField(buf, 3));
+            } catch (DateTimeParseException e) {
+                if (isLenient) {
+                    return null;
+                }
+                throw e;
+            }
+            break;
+        case 'E':
+            task = new Event(descriptions.intern(decodeField(buf, 2)), decodeField(buf, 3), decodeField(buf, 4));
+            break;
+        default:
+            return null;
+        }
+
+        if (fieldEnds[1] - fieldStarts[1] == 1 && buf.get(fieldStarts[1]) == '1') {
+            task = task.withDone(true);
+        }
+        int id = readId(buf, type);
+        if (id > 0) {
+            task.setId(id);
+        }
+        return task;
+    }
+
+    /**
+     * Reads the id field of the scanned line, which follows the details of a task of the given
+     * type.
+     *
+     * @return The id, or 0 if there is none or the file has no ids.
+     */
+    private int readId(ByteBuffer buf, byte type) {
+        int idField = type == 'T' ? 3 : type == 'D' ? 4 : 5;
+        if (!hasIds || idField >= fieldCount) {
+            return 0;
+        }
+        trimField(buf, idField);
+        int length = fieldEnds[idField] - fieldStarts[idField];
+        int id = length > 0 && length <= 9 ? digits(buf, fieldStarts[idField], length) : -1;
+        return Math.max(id, 0);
+    }
+
+    /**
+     * Narrows the bounds of the given field so that leading and trailing whitespace
+     * (as defined by {@link String#trim()}) is excluded.
+     */
+    private void trimField(ByteBuffer buf, int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (start < end && (buf.get(start) & 0xff) <= ' ') {
+            start++;
+        }
+        while (end > start && (buf.get(end - 1) & 0xff) <= ' ') {
+            end--;
+        }
+        fieldStarts[field] = start;
+        fieldEnds[field] = end;
+    }
+
+    /**
+     * Decodes the trimmed UTF-8 contents of the given field, unescaping them in escaped files.
+     */
+    private String decodeField(ByteBuffer buf, int field) {
+        trimField(buf, field);
+        int length = fieldEnds[field] - fieldStarts[field];
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buf.get(fieldStarts[field], scratch, 0, length);
+        String text = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        return isEscaped ? JournalEntry.unescape(text) : text;
+    }
+
+    /**
+     * Parses the given field as a yyyy-mm-dd date. Digits are read directly for the common
+     * case; anything else falls back to {@link LocalDate#parse} so that errors are reported
+     * the same way.
+     */
+    private LocalDate parseDateField(ByteBuffer buf, int field) {
+        trimField(buf, field);
+        int start = fieldStarts[field];
+        if (fieldEnds[field] - start == 10 && buf.get(start + 4) == '-' && buf.get(start + 7) == '-') {
+            int year = digits(buf, start, 4);
+            int month = digits(buf, start + 5, 2);
+            int day = digits(buf, start + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException e) {
+                    // Fall through so that LocalDate.parse reports the error.
+                }
+            }
+        }
+        return LocalDate.parse(decodeField(buf, field));
+    }
+
+    /**
+     * Reads {@code count} ASCII digits as a number, or returns -1 if any byte is not a digit.
+     */
+    private static int digits(ByteBuffer buf, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,131 @@
+package robert.task;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Indexes the tasks of a {@link TaskList} by type, done flag and deadline date, for the
+ * {@link QueryPlanner}. Types and the done flag are bit sets over task ids; deadlines are
+ * kept in a sorted map from date to the ids due that day. Unlike the description indexes,
+ * this index is kept exact: removed tasks are taken out straight away.
+ */
+class AttributeIndex {
+    private final BitSet todos = new BitSet();
+    private final BitSet deadlines = new BitSet();
+    private final BitSet events = new BitSet();
+    private final BitSet done = new BitSet();
+    private final TreeMap<LocalDate, Postings> deadlineDates = new TreeMap<>();
+
+    void add(Task t) {
+        add(t.getId(), t.getClass(), t.isDone(), t instanceof Deadline ? ((Deadline) t).getByDate() : null);
+    }
+
+    /**
+     * Adds the task with the given id and attributes.
+     *
+     * @param dueDate The due date if the task is a deadline, otherwise null.
+     */
+    void add(int id, Class<? extends Task> type, boolean isDone, LocalDate dueDate) {
+        typeOf(type).set(id);
+        done.set(id, isDone);
+        if (dueDate != null) {
+            deadlineDates.computeIfAbsent(dueDate, d -> new Postings()).add(id);
+        }
+    }
+
+    void remove(Task t) {
+        typeOf(t.getClass()).clear(t.getId());
+        done.clear(t.getId());
+        if (t instanceof Deadline) {
+            LocalDate date = ((Deadline) t).getByDate();
+            Postings ids = deadlineDates.get(date);
+            ids.remove(t.getId());
+            if (ids.size() == 0) {
+                deadlineDates.remove(date);
+            }
+        }
+    }
+
+    void setDone(int id, boolean isDone) {
+        done.set(id, isDone);
+    }
+
+    private BitSet typeOf(Class<? extends Task> type) {
+        if (Deadline.class.isAssignableFrom(type)) {
+            return deadlines;
+        } else if (Event.class.isAssignableFrom(type)) {
+            return events;
+        }
+        return todos;
+    }
+
+    /**
+     * Returns the live ids of the given type. The returned set must not be changed.
+     * Tasks that are neither deadlines nor events are filed as todos.
+     */
+    BitSet ofType(Class<? extends Task> type) {
+        if (type == Todo.class) {
+            return todos;
+        } else if (type == Deadline.class) {
+            return deadlines;
+        } else if (type == Event.class) {
+            return events;
+        }
+        throw new IllegalArgumentException("Tasks of type " + type.getSimpleName() + " are not indexed");
+    }
+
+    /**
+     * Returns the live ids that are done. The returned set must not be changed.
+     */
+    BitSet done() {
+        return done;
+    }
+
+    /**
+     * Returns the live ids that are not done.
+     */
+    BitSet notDone() {
+        BitSet ids = (BitSet) todos.clone();
+        ids.or(deadlines);
+        ids.or(events);
+        ids.andNot(done);
+        return ids;
+    }
+
+    /**
+     * Returns the ids of the deadlines due strictly between the given dates, by date.
+     * A null date leaves that end of the range open.
+     */
+    NavigableMap<LocalDate, Postings> deadlinesBetween(LocalDate after, LocalDate before) {
+        return deadlineRange(after, false, before, false);
+    }
+
+    /**
+     * Returns the ids of the deadlines due from {@code from} to {@code to}, both inclusive, by
+     * date. A null date leaves that end of the range open.
+     */
+    NavigableMap<LocalDate, Postings> deadlinesDue(LocalDate from, LocalDate to) {
+        return deadlineRange(from, true, to, true);
+    }
+
+    private NavigableMap<LocalDate, Postings> deadlineRange(LocalDate from, boolean isFromIncluded,
+            LocalDate to, boolean isToIncluded) {
+        if (from != null && to != null) {
+            int order = from.compareTo(to);
+            if (order > 0 || order == 0 && !(isFromIncluded && isToIncluded)) {
+                return Collections.emptyNavigableMap();
+            }
+        }
+        NavigableMap<LocalDate, Postings> range = deadlineDates;
+        if (from != null) {
+            range = range.tailMap(from, isFromIncluded);
+        }
+        if (to != null) {
+            range = range.headMap(to, isToIncluded);
+        }
+        return range;
+    }
+}
@@ -0,0 +1,101 @@
+package robert.task;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A BK-tree of words under the Levenshtein distance. Every child of a node is filed under
+ * its distance to that node, so by the triangle inequality a search for words within
+ * distance {@code k} of a query only has to descend into children filed under
+ * {@code d - k .. d + k}, where {@code d} is the distance of the query to the node.
+ * On a large vocabulary this visits a small fraction of the words.
+ */
+class BkTree {
+    private Node root;
+    private int[] previousRow = new int[16];
+    private int[] currentRow = new int[16];
+
+    private static class Node {
+        private final String word;
+        private Node[] children = new Node[0];
+
+        Node(String word) {
+            this.word = word;
+        }
+    }
+
+    /**
+     * Adds a word to the tree, unless it is already there.
+     */
+    void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int d = distance(word, node.word);
+            if (d == 0) {
+                return;
+            }
+            if (d >= node.children.length) {
+                node.children = Arrays.copyOf(node.children, d + 1);
+            }
+            if (node.children[d] == null) {
+                node.children[d] = new Node(word);
+                return;
+            }
+            node = node.children[d];
+        }
+    }
+
+    /**
+     * Passes every word within {@code maxDistance} of the query, with its distance, to the consumer.
+     */
+    void search(String query, int maxDistance, ObjIntConsumer<String> consumer) {
+        if (root == null) {
+            return;
+        }
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int d = distance(query, node.word);
+            if (d <= maxDistance) {
+                consumer.accept(node.word, d);
+            }
+            int to = Math.min(d + maxDistance, node.children.length - 1);
+            for (int i = Math.max(1, d - maxDistance); i <= to; i++) {
+                if (node.children[i] != null) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the Levenshtein distance between the two words, reusing the same two rows.
+     */
+    int distance(String a, String b) {
+        if (b.length() + 1 > previousRow.length) {
+            previousRow = new int[b.length() + 1];
+            currentRow = new int[b.length() + 1];
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            previousRow[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            currentRow[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previousRow[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                currentRow[j] = Math.min(substitution, Math.min(previousRow[j], currentRow[j - 1]) + 1);
+            }
+            int[] swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
+        }
+        return previousRow[b.length()];
+    }
+}
@@ -0,0 +1,210 @@
+package robert.task;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Holds tasks in columns of ints instead of one object per task: the type and done flag, the
+ * id and, for deadlines, the due date as an epoch day. All texts live in one shared
+ * {@link TextArena} as UTF-8, each task's texts next to each other: the description, then for
+ * events the start and end times. Filters and scans read the columns directly; {@link #get}
+ * decodes a short-lived Task on access, much like {@link PagedTaskStore} does from a file.
+ *
+ * <p>The columns and the arena are kept in blocks that copies share ({@link IntColumn}), so
+ * {@link #copy} and {@link #snapshot} take O(1), and a version kept for undo only costs the
+ * blocks that changed after it was taken.
+ *
+ * <p>Tasks other than deadlines and events are kept as todos. A task costs about 24 bytes plus
+ * its text, compared with around 100 bytes for a small task on the heap.
+ */
+class ColumnarTaskStore implements TaskStore {
+    private static final int TODO = 0;
+    private static final int DEADLINE = 1;
+    private static final int EVENT = 2;
+    private static final int TYPE_MASK = 3;
+    private static final int DONE_BIT = 4;
+
+    /** The type of each task, with {@link #DONE_BIT} set if it is done. */
+    private IntColumn flags;
+    private IntColumn ids;
+    private IntColumn days;
+    /** textStarts[i] is where the texts of slot i start; they end where those of slot i + 1 start. */
+    private IntColumn textStarts;
+    private IntColumn descriptionEnds;
+    private IntColumn startTimeEnds;
+    private TextArena arena;
+
+    ColumnarTaskStore() {
+        clear();
+    }
+
+    private ColumnarTaskStore(ColumnarTaskStore other) {
+        flags = other.flags.copy();
+        ids = other.ids.copy();
+        days = other.days.copy();
+        textStarts = other.textStarts.copy();
+        descriptionEnds = other.descriptionEnds.copy();
+        startTimeEnds = other.startTimeEnds.copy();
+        arena = other.arena.copy();
+    }
+
+    private void clear() {
+        flags = new IntColumn();
+        ids = new IntColumn();
+        days = new IntColumn();
+        textStarts = new IntColumn();
+        textStarts.add(0);
+        descriptionEnds = new IntColumn();
+        startTimeEnds = new IntColumn();
+        arena = new TextArena();
+    }
+
+    @Override
+    public int size() {
+        return ids.size();
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        int start = textStarts.get(index);
+        String description = arena.text(start, descriptionEnds.get(index));
+        int flag = flags.get(index);
+        Task t;
+        switch (flag & TYPE_MASK) {
+        case DEADLINE:
+            t = new Deadline(description, LocalDate.ofEpochDay(days.get(index)));
+            break;
+        case EVENT:
+            t = new Event(description, arena.text(descriptionEnds.get(index), startTimeEnds.get(index)),
+                    arena.text(startTimeEnds.get(index), textStarts.get(index + 1)));
+            break;
+        default:
+            t = new Todo(description);
+        }
+        if ((flag & DONE_BIT) != 0) {
+            t.isDone = true;
+        }
+        if (ids.get(index) > 0) {
+            t.setId(ids.get(index));
+        }
+        return t;
+    }
+
+    @Override
+    public void setDone(int index, boolean isDone) {
+        checkIndex(index);
+        int flag = flags.get(index);
+        flags.set(index, isDone ? flag | DONE_BIT : flag & ~DONE_BIT);
+    }
+
+    @Override
+    public boolean isDone(int index) {
+        checkIndex(index);
+        return (flags.get(index) & DONE_BIT) != 0;
+    }
+
+    @Override
+    public int idOf(int index) {
+        checkIndex(index);
+        return ids.get(index);
+    }
+
+    @Override
+    public Class<? extends Task> typeOf(int index) {
+        checkIndex(index);
+        int type = flags.get(index) & TYPE_MASK;
+        return type == DEADLINE ? Deadline.class : type == EVENT ? Event.class : Todo.class;
+    }
+
+    @Override
+    public LocalDate dueDate(int index) {
+        checkIndex(index);
+        return (flags.get(index) & TYPE_MASK) == DEADLINE ? LocalDate.ofEpochDay(days.get(index)) : null;
+    }
+
+    @Override
+    public void add(Task t) {
+        int type = TODO;
+        int day = 0;
+        int end = arena.append(t.getDescription());
+        descriptionEnds.add(end);
+        if (t instanceof Deadline) {
+            type = DEADLINE;
+            day = (int) ((Deadline) t).getByDate().toEpochDay();
+        } else if (t instanceof Event) {
+            type = EVENT;
+            end = arena.append(((Event) t).getStartTime());
+            startTimeEnds.add(end);
+            end = arena.append(((Event) t).getEndTime());
+        }
+        if (type != EVENT) {
+            startTimeEnds.add(end);
+        }
+        flags.add(t.isDone() ? type | DONE_BIT : type);
+        ids.add(t.getId());
+        days.add(day);
+        textStarts.add(end);
+    }
+
+    /**
+     * Drops the given slots by building new columns from the kept ones. The old blocks stay
+     * with any copies that still use them.
+     */
+    @Override
+    public void removeSlots(BitSet slots) {
+        ColumnarTaskStore old = new ColumnarTaskStore(this);
+        clear();
+        for (int i = 0; i < old.size(); i++) {
+            if (slots.get(i)) {
+                continue;
+            }
+            int start = old.textStarts.get(i);
+            int shift = arena.size() - start;
+            descriptionEnds.add(old.descriptionEnds.get(i) + shift);
+            startTimeEnds.add(old.startTimeEnds.get(i) + shift);
+            textStarts.add(arena.append(old.arena.bytes(start, old.textStarts.get(i + 1))));
+            flags.add(old.flags.get(i));
+            ids.add(old.ids.get(i));
+            days.add(old.days.get(i));
+        }
+    }
+
+    @Override
+    public void replaceAll(List<Task> tasks) {
+        clear();
+        for (Task t : tasks) {
+            add(t);
+        }
+    }
+
+    @Override
+    public TaskStore copy() {
+        return new ColumnarTaskStore(this);
+    }
+
+    @Override
+    public List<Task> snapshot() {
+        ColumnarTaskStore frozen = new ColumnarTaskStore(this);
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return frozen.get(index);
+            }
+
+            @Override
+            public int size() {
+                return frozen.size();
+            }
+        };
+    }
+
+    private void checkIndex(int index) {
+        int size = size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
@@ -3,11 +3,17 @@ package robert.task;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a task that must be done before a specific date.
  */
 public class Deadline extends Task {
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("MMM d yyyy");
+    /** The most dates kept formatted; the cache starts over when it is full. */
+    private static final int MAX_CACHED_DATES = 4096;
+    /** Formatted dates, shared by every deadline due that day, so listing does not format each time. */
+    private static final ConcurrentHashMap<LocalDate, String> DISPLAY_DATES = new ConcurrentHashMap<>();
 
     protected LocalDate byDate;
 
@@ -25,20 +31,51 @@ public class Deadline extends Task {
         this.byDate = LocalDate.parse(by);
     }
 
+    /**
+     * Constructs a robert.task.Deadline task with a description and an already parsed 'by' date.
+     *
+     * @param description The task description.
+     * @param byDate      The deadline date.
+     */
+    public Deadline(String description, LocalDate byDate) {
+        super(description);
+        assert description != null : "Deadline description cannot be null";
+        assert byDate != null : "Deadline 'by' date cannot be null";
+        this.byDate = byDate;
+    }
+
+    @Override
+    Task copy() {
+        return new Deadline(description, byDate);
+    }
+
     public LocalDate getByDate() {
         return byDate;
     }
 
 
     /**
-     * Returns the string representation of the deadline. This includes
-     * the status, description, and deadline date formatted as "MMM dd yyyy".
+     * Appends the string representation of the deadline. This includes
+     * the status, description, and deadline date formatted as "MMM d yyyy".
      *
-     * @return The string representation of the deadline in the format: [D][status] description (by: MMM dd yyyy)
+     * @param sb The builder to append to, e.g. with "[D][status] description (by: MMM d yyyy)".
      */
     @Override
-    public String toString() {
-        return "[D]" + super.toString() + " (by: "
-                + byDate.format(DateTimeFormatter.ofPattern("MMM d yyyy")) + ")";
+    public void appendTo(StringBuilder sb) {
+        sb.append("[D]");
+        super.appendTo(sb);
+        sb.append(" (by: ").append(displayDate(byDate)).append(')');
+    }
+
+    private static String displayDate(LocalDate date) {
+        String text = DISPLAY_DATES.get(date);
+        if (text == null) {
+            if (DISPLAY_DATES.size() >= MAX_CACHED_DATES) {
+                DISPLAY_DATES.clear();
+            }
+            text = date.format(DISPLAY_DATE);
+            DISPLAY_DATES.put(date, text);
+        }
+        return text;
     }
 }
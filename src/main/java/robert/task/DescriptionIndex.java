@@ -0,0 +1,50 @@
+package robert.task;
+
+/**
+ * An index over the lowercased descriptions of the tasks in a {@link TaskList}, used to find
+ * candidates for a keyword search without looking at every task.
+ *
+ * <p>Removed tasks are not taken out of the postings; callers skip ids that are no longer in
+ * the list, and rebuild the index once {@link #isStale()} reports that most ids are gone.
+ */
+abstract class DescriptionIndex {
+    private int indexedTasks;
+    private int removedTasks;
+
+    /**
+     * Indexes the description of the given task.
+     */
+    final void add(Task t) {
+        index(t.getId(), t.getDescription().toLowerCase());
+        indexedTasks++;
+    }
+
+    /**
+     * Records that a task has been removed from the list.
+     */
+    final void remove() {
+        removedTasks++;
+    }
+
+    /**
+     * Returns whether more than half of the indexed tasks have been removed since the index
+     * was built, so that rebuilding it would save more than it costs.
+     */
+    final boolean isStale() {
+        return removedTasks * 2 > indexedTasks;
+    }
+
+    abstract void index(int id, String text);
+
+    /**
+     * Returns the sorted ids of all tasks whose lowercased description may contain the given
+     * lowercase needle, including every task that does.
+     */
+    abstract int[] candidates(String needle);
+
+    /**
+     * Returns an upper bound on the number of candidates for the given needle that is cheap to
+     * compute, or {@link Integer#MAX_VALUE} if there is none.
+     */
+    abstract int estimate(String needle);
+}
@@ -0,0 +1,131 @@
+package robert.task;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool that lets tasks with equal descriptions share one String. Large task files
+ * repeat the same descriptions ("read book", "return book") thousands of times, and without
+ * the pool each copy would be a separate String on the heap.
+ *
+ * <p>The pool is a fixed-size table of weak references indexed by hash, so it never holds more
+ * than {@link #DEFAULT_SLOTS} entries and never keeps a description alive that no task uses any
+ * more. When two descriptions share a slot, the newer one replaces the older one; the pool only
+ * saves memory and never affects which description a task has. It may be used from several
+ * threads at once (e.g. by the parallel file parser): a lost update only costs a miss.
+ */
+public class DescriptionPool {
+    /** The number of slots in the shared pool. */
+    public static final int DEFAULT_SLOTS = 1 << 16;
+    /** The approximate heap size of a String apart from its characters: header, fields and array header. */
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final DescriptionPool SHARED = new DescriptionPool(DEFAULT_SLOTS);
+
+    private final WeakReference<String>[] slots;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * Constructs an empty pool.
+     *
+     * @param slotCount The number of slots, rounded up to a power of two.
+     */
+    public DescriptionPool(int slotCount) {
+        assert slotCount > 0 : "A DescriptionPool needs at least one slot";
+        slots = newSlots(Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1);
+    }
+
+    /**
+     * Returns an empty table of slots. Arrays of a generic type cannot be created directly, but
+     * the table only ever holds references to Strings, so the cast is safe.
+     */
+    @SuppressWarnings("unchecked")
+    private static WeakReference<String>[] newSlots(int count) {
+        return (WeakReference<String>[]) new WeakReference<?>[count];
+    }
+
+    /**
+     * Returns the pool that tasks are loaded and added through.
+     *
+     * @return The shared pool.
+     */
+    public static DescriptionPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns a String equal to the given one, preferring a copy already in the pool.
+     *
+     * @param description The description to look up.
+     * @return The pooled copy if there is one, otherwise the given description, which is pooled.
+     */
+    public String intern(String description) {
+        int h = description.hashCode();
+        int slot = (h ^ (h >>> 16)) & (slots.length - 1);
+        WeakReference<String> ref = slots[slot];
+        String pooled = ref == null ? null : ref.get();
+        if (pooled != null && pooled.equals(description)) {
+            if (pooled != description) {
+                hits.increment();
+                bytesSaved.add(STRING_OVERHEAD_BYTES + sizeOf(description));
+            }
+            return pooled;
+        }
+        misses.increment();
+        slots[slot] = new WeakReference<>(description);
+        return description;
+    }
+
+    /**
+     * Returns the approximate number of bytes taken by the characters of a String, which are
+     * stored as one byte each if they are all Latin-1, and as two bytes otherwise.
+     */
+    private static int sizeOf(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xff) {
+                return s.length() * 2;
+            }
+        }
+        return s.length();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns an estimate of the heap saved by handing out pooled copies, assuming that the
+     * copies that were passed in would otherwise have been kept.
+     *
+     * @return The estimated number of bytes saved.
+     */
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    /**
+     * Returns the share of lookups that found an equal description in the pool.
+     *
+     * @return The hit rate, between 0 and 1.
+     */
+    public double getHitRate() {
+        long lookups = getHits() + getMisses();
+        return lookups == 0 ? 0 : (double) getHits() / lookups;
+    }
+
+    /**
+     * Returns a one-line summary of the statistics of this pool.
+     *
+     * @return E.g. "description pool: 9,800 of 10,000 lookups hit (98.0%), about 480 KB saved".
+     */
+    @Override
+    public String toString() {
+        return String.format("description pool: %,d of %,d lookups hit (%.1f%%), about %,d KB saved",
+                getHits(), getHits() + getMisses(), getHitRate() * 100, getBytesSaved() / 1024);
+    }
+}
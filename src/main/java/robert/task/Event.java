@@ -1,12 +1,24 @@
 package robert.task;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
 /**
  * Represents a task that starts at a specific time and ends at a specific time.
+ * The times are kept as the user typed them, for display. If they are written as
+ * "yyyy-mm-dd" or "yyyy-mm-dd HH:mm", the event is also scheduled: it occupies the time from
+ * its start up to (but excluding) its end, where an end given as a date lasts the whole day.
+ * Times are parsed on first use, so loading a large task file does not pay for it. The parsed
+ * times are published together through a volatile field, so an event can be read from any thread.
  */
 public class Event extends Task {
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
     protected String startTime;
     protected String endTime;
+    private volatile Schedule schedule;
 
     /**
      * Constructs a robert.task.Event with a description, a start time, and an end time.
@@ -24,6 +36,11 @@ public class Event extends Task {
         this.endTime = endTime;
     }
 
+    @Override
+    Task copy() {
+        return new Event(description, startTime, endTime);
+    }
+
     public String getStartTime() {
         return startTime;
     }
@@ -32,15 +49,98 @@ public class Event extends Task {
         return endTime;
     }
 
+    /**
+     * Returns the time at which the event starts.
+     *
+     * @return The start, or null if the event is not scheduled.
+     */
+    public LocalDateTime getStart() {
+        return schedule().start;
+    }
+
+    /**
+     * Returns the time at which the event is over.
+     *
+     * @return The end (exclusive), or null if the event is not scheduled.
+     */
+    public LocalDateTime getEnd() {
+        return schedule().end;
+    }
+
+    /**
+     * Returns whether both times of the event could be read as dates, with the end after the start.
+     *
+     * @return True if the event is scheduled.
+     */
+    public boolean isScheduled() {
+        return getStart() != null;
+    }
+
+    /**
+     * Returns the parsed times, parsing them on first use. Threads that race here parse the same
+     * times; whichever result is published last is equal to the others.
+     */
+    private Schedule schedule() {
+        Schedule parsed = schedule;
+        if (parsed == null) {
+            LocalDateTime parsedStart = parseTime(startTime, false);
+            LocalDateTime parsedEnd = parseTime(endTime, true);
+            parsed = parsedStart != null && parsedEnd != null && parsedEnd.isAfter(parsedStart)
+                    ? new Schedule(parsedStart, parsedEnd)
+                    : Schedule.UNSCHEDULED;
+            schedule = parsed;
+        }
+        return parsed;
+    }
+
+    /**
+     * The times of an event, or nulls if it is not scheduled. The fields are final, so a
+     * Schedule is seen whole by every thread that reads it.
+     */
+    private static final class Schedule {
+        static final Schedule UNSCHEDULED = new Schedule(null, null);
+
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        Schedule(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Reads a time written as "yyyy-mm-dd" or "yyyy-mm-dd HH:mm". A date on its own stands for
+     * the start of that day, or, for the end of a period, the start of the next day.
+     *
+     * @param text  The text to read.
+     * @param isEnd Whether the time ends a period.
+     * @return The time, or null if the text is not written in either format.
+     */
+    public static LocalDateTime parseTime(String text, boolean isEnd) {
+        String trimmed = text.trim();
+        try {
+            if (trimmed.length() == "yyyy-mm-dd".length()) {
+                LocalDate date = LocalDate.parse(trimmed);
+                return isEnd ? date.plusDays(1).atStartOfDay() : date.atStartOfDay();
+            }
+            return LocalDateTime.parse(trimmed, DATE_TIME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
 
     /**
-     * Returns the string representation of the event. This includes the
+     * Appends the string representation of the event. This includes the
      * status, the description, and time.
      *
-     * @return The string representation of the event.
+     * @param sb The builder to append to.
      */
     @Override
-    public String toString() {
-        return "[E]" + super.toString() + " (from: " + startTime + " to: " + endTime + ")";
+    public void appendTo(StringBuilder sb) {
+        sb.append("[E]");
+        super.appendTo(sb);
+        sb.append(" (from: ").append(startTime).append(" to: ").append(endTime).append(')');
     }
 }
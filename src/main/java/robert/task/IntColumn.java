@@ -0,0 +1,93 @@
+package robert.task;
+
+import java.util.BitSet;
+
+/**
+ * A growable column of ints that can be copied in O(1). The ints are kept in blocks of
+ * {@value #BLOCK} in a {@link PersistentVector}, which a copy shares with the original, plus a
+ * partly filled tail block that is shared until either side appends to it. A change to a block
+ * that is shared with a copy copies only that block, so keeping many versions costs memory in
+ * proportion to the blocks changed between them, not to the size of the column.
+ */
+class IntColumn {
+    private static final int BLOCK_BITS = 10;
+    private static final int BLOCK = 1 << BLOCK_BITS;
+    private static final int MASK = BLOCK - 1;
+
+    private final PersistentVector<int[]> blocks;
+    private int[] tail;
+    private int size;
+    private boolean isTailShared;
+    /** The blocks copied by this column since it was last copied, which it may change in place. */
+    private BitSet ownedBlocks = new BitSet();
+
+    IntColumn() {
+        this(new PersistentVector<>(), new int[BLOCK], 0, false);
+    }
+
+    private IntColumn(PersistentVector<int[]> blocks, int[] tail, int size, boolean isTailShared) {
+        this.blocks = blocks;
+        this.tail = tail;
+        this.size = size;
+        this.isTailShared = isTailShared;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        checkIndex(index);
+        int block = index >>> BLOCK_BITS;
+        return block < blocks.size() ? blocks.get(block)[index & MASK] : tail[index & MASK];
+    }
+
+    void set(int index, int value) {
+        checkIndex(index);
+        int block = index >>> BLOCK_BITS;
+        if (block == blocks.size()) {
+            editableTail()[index & MASK] = value;
+            return;
+        }
+        int[] ints = blocks.get(block);
+        if (!ownedBlocks.get(block)) {
+            ints = ints.clone();
+            blocks.set(block, ints);
+            ownedBlocks.set(block);
+        }
+        ints[index & MASK] = value;
+    }
+
+    void add(int value) {
+        editableTail()[size & MASK] = value;
+        size++;
+        if ((size & MASK) == 0) {
+            ownedBlocks.set(blocks.size());
+            blocks.add(tail);
+            tail = new int[BLOCK];
+        }
+    }
+
+    /**
+     * Returns a copy that shares all blocks with this column. Neither sees later changes to the other.
+     */
+    IntColumn copy() {
+        isTailShared = true;
+        ownedBlocks = new BitSet();
+        return new IntColumn(blocks.copy(), tail, size, true);
+    }
+
+    private int[] editableTail() {
+        if (isTailShared) {
+            tail = tail.clone();
+            isTailShared = false;
+        }
+        return tail;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package robert.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * An interval tree of the scheduled events of a {@link TaskList}, by id. It is a treap
+ * ordered by start time (then id), where every node also records the latest end in its
+ * subtree. A search for the events overlapping a period skips every subtree that ends before
+ * the period or starts after it, so it visits O(log n + k) nodes for k results in expectation.
+ * Intervals are half-open: an event ending at 10:00 does not overlap one starting at 10:00.
+ */
+class IntervalTree {
+    private final Random random = new Random();
+    private Node root;
+
+    private static class Node {
+        private final int id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final int priority;
+        private LocalDateTime maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(int id, LocalDateTime start, LocalDateTime end, int priority) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+
+    /**
+     * Adds the given scheduled event.
+     */
+    void add(Event e) {
+        assert e.isScheduled() : "Only scheduled events can be added to an IntervalTree";
+        root = insert(root, new Node(e.getId(), e.getStart(), e.getEnd(), random.nextInt()));
+    }
+
+    /**
+     * Removes the given scheduled event, if present.
+     */
+    void remove(Event e) {
+        root = delete(root, e.getStart(), e.getId());
+    }
+
+    /**
+     * Passes the ids of the events that overlap the period from {@code from} up to (but
+     * excluding) {@code to} to the consumer, by start time.
+     */
+    void forEachOverlapping(LocalDateTime from, LocalDateTime to, IntConsumer consumer) {
+        visit(root, from, to, consumer);
+    }
+
+    /**
+     * Returns every pair of overlapping events as {first id, second id}, where the first starts
+     * no later than the second. Walking the events by start time, an event overlaps exactly the
+     * events after it that start before it ends, so this takes O(n + k) for k pairs.
+     */
+    List<int[]> overlappingPairs() {
+        ArrayList<Node> nodes = new ArrayList<>();
+        inOrder(root, nodes);
+        ArrayList<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            Node first = nodes.get(i);
+            for (int j = i + 1; j < nodes.size() && nodes.get(j).start.isBefore(first.end); j++) {
+                pairs.add(new int[] {first.id, nodes.get(j).id});
+            }
+        }
+        return pairs;
+    }
+
+    private static int compare(LocalDateTime start, int id, Node node) {
+        int order = start.compareTo(node.start);
+        return order != 0 ? order : Integer.compare(id, node.id);
+    }
+
+    private static void update(Node node) {
+        node.maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            Node[] parts = split(node, added.start, added.id);
+            added.left = parts[0];
+            added.right = parts[1];
+            update(added);
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Splits a subtree into the nodes before and after the given key.
+     */
+    private static Node[] split(Node node, LocalDateTime start, int id) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(start, id, node) < 0) {
+            Node[] parts = split(node.left, start, id);
+            node.left = parts[1];
+            update(node);
+            parts[1] = node;
+            return parts;
+        }
+        Node[] parts = split(node.right, start, id);
+        node.right = parts[0];
+        update(node);
+        parts[0] = node;
+        return parts;
+    }
+
+    private static Node delete(Node node, LocalDateTime start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(start, id, node);
+        if (order == 0) {
+            return merge(node.left, node.right);
+        }
+        if (order < 0) {
+            node.left = delete(node.left, start, id);
+        } else {
+            node.right = delete(node.right, start, id);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Joins two subtrees where every node of the first comes before every node of the second.
+     */
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        }
+        second.left = merge(first, second.left);
+        update(second);
+        return second;
+    }
+
+    private static void visit(Node node, LocalDateTime from, LocalDateTime to, IntConsumer consumer) {
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+        visit(node.left, from, to, consumer);
+        if (!node.start.isBefore(to)) {
+            return;
+        }
+        if (node.end.isAfter(from)) {
+            consumer.accept(node.id);
+        }
+        visit(node.right, from, to, consumer);
+    }
+
+    private static void inOrder(Node node, List<Node> nodes) {
+        if (node == null) {
+            return;
+        }
+        inOrder(node.left, nodes);
+        nodes.add(node);
+        inOrder(node.right, nodes);
+    }
+}
@@ -0,0 +1,266 @@
+package robert.task;
+
+import java.util.BitSet;
+
+/**
+ * Tracks which slots of a {@link TaskStore} hold live tasks and which hold tombstones of
+ * deleted ones. The live flags sit in the leaves of a tree with 32 children per node, 64 flags
+ * per leaf, and every node counts the live slots under each of its children; this turns a
+ * user-visible index into a slot (and back) in O(log n), so deleting a task never has to shift
+ * the slots behind it. While there are no tombstones, indexes and slots are the same and no
+ * tree lookups happen.
+ *
+ * <p>Like {@link PersistentVector}, the tree is copied in O(1) by sharing its nodes, and a
+ * change copies only the nodes on its path that are shared with a copy.
+ */
+class LiveSlots {
+    private static final int LEAF_BITS = 6;
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    /** A leaf with all 64 slots live; being owned by nothing, it is copied before any change. */
+    private static final Node FULL_LEAF = new Node(null, -1L);
+
+    private Node root;
+    /** The number of levels of inner nodes above the leaves. */
+    private int height;
+    private int slots;
+    private int live;
+    private Object owner = new Object();
+
+    private static class Node {
+        private final Object owner;
+        /** Leaves only: one flag per slot, set if the slot is live. */
+        private long flags;
+        /** Inner nodes only: the children and the number of live slots under each. */
+        private final Node[] children;
+        private final int[] counts;
+
+        Node(Object owner, long flags) {
+            this.owner = owner;
+            this.flags = flags;
+            this.children = null;
+            this.counts = null;
+        }
+
+        Node(Object owner, Node[] children, int[] counts) {
+            this.owner = owner;
+            this.children = children;
+            this.counts = counts;
+        }
+    }
+
+    LiveSlots(int count) {
+        reset(count);
+    }
+
+    private LiveSlots(Node root, int height, int slots, int live) {
+        this.root = root;
+        this.height = height;
+        this.slots = slots;
+        this.live = live;
+    }
+
+    /**
+     * Forgets all tombstones and tracks {@code count} live slots. Runs in O(count / 64).
+     */
+    void reset(int count) {
+        owner = new Object();
+        slots = count;
+        live = count;
+        int leaves = Math.max(1, (count + (1 << LEAF_BITS) - 1) >>> LEAF_BITS);
+        Node[] level = new Node[leaves];
+        int[] counts = new int[leaves];
+        for (int i = 0; i < leaves; i++) {
+            int inLeaf = Math.min(count - (i << LEAF_BITS), 1 << LEAF_BITS);
+            level[i] = inLeaf == 1 << LEAF_BITS ? FULL_LEAF : new Node(owner, (1L << inLeaf) - 1);
+            counts[i] = inLeaf;
+        }
+        height = 0;
+        while (level.length > 1) {
+            int parents = (level.length + WIDTH - 1) / WIDTH;
+            Node[] parentLevel = new Node[parents];
+            int[] parentCounts = new int[parents];
+            for (int p = 0; p < parents; p++) {
+                Node[] children = new Node[WIDTH];
+                int[] childCounts = new int[WIDTH];
+                for (int c = 0; c < WIDTH && p * WIDTH + c < level.length; c++) {
+                    children[c] = level[p * WIDTH + c];
+                    childCounts[c] = counts[p * WIDTH + c];
+                    parentCounts[p] += childCounts[c];
+                }
+                parentLevel[p] = new Node(owner, children, childCounts);
+            }
+            level = parentLevel;
+            counts = parentCounts;
+            height++;
+        }
+        root = level[0];
+    }
+
+    /**
+     * Returns a copy that shares all nodes with this tree. Neither sees later changes to the other.
+     */
+    LiveSlots copy() {
+        owner = new Object();
+        return new LiveSlots(root, height, slots, live);
+    }
+
+    /**
+     * Adds a live slot at the end and returns it.
+     */
+    int append() {
+        if (slots == 1 << (LEAF_BITS + BITS * height)) {
+            Node[] children = new Node[WIDTH];
+            int[] counts = new int[WIDTH];
+            children[0] = root;
+            counts[0] = live;
+            root = new Node(owner, children, counts);
+            height++;
+        }
+        int slot = slots++;
+        live++;
+        leafFor(slot, 1).flags |= 1L << slot;
+        return slot;
+    }
+
+    /**
+     * Turns the given live slot into a tombstone.
+     */
+    void kill(int slot) {
+        assert isLive(slot) : "Slot " + slot + " is already a tombstone";
+        live--;
+        leafFor(slot, -1).flags &= ~(1L << slot);
+    }
+
+    /**
+     * Returns the leaf that holds the given slot, adding {@code delta} to the counts on the way
+     * to it. Nodes on the way that this tree does not own are copied, and missing ones created.
+     */
+    private Node leafFor(int slot, int delta) {
+        root = editable(root);
+        Node node = root;
+        for (int level = height; level > 0; level--) {
+            int i = childOf(slot, level);
+            Node child = node.children[i];
+            if (child == null) {
+                child = level == 1 ? new Node(owner, 0L) : new Node(owner, new Node[WIDTH], new int[WIDTH]);
+            } else {
+                child = editable(child);
+            }
+            node.children[i] = child;
+            node.counts[i] += delta;
+            node = child;
+        }
+        return node;
+    }
+
+    private Node editable(Node node) {
+        if (node.owner == owner) {
+            return node;
+        }
+        return node.children == null
+                ? new Node(owner, node.flags)
+                : new Node(owner, node.children.clone(), node.counts.clone());
+    }
+
+    private static int childOf(int slot, int level) {
+        return (slot >>> (LEAF_BITS + BITS * (level - 1))) & (WIDTH - 1);
+    }
+
+    boolean isLive(int slot) {
+        if (live == slots) {
+            return true;
+        }
+        Node node = root;
+        for (int level = height; level > 0; level--) {
+            node = node.children[childOf(slot, level)];
+        }
+        return (node.flags & 1L << slot) != 0;
+    }
+
+    int liveCount() {
+        return live;
+    }
+
+    int slotCount() {
+        return slots;
+    }
+
+    int tombstones() {
+        return slots - live;
+    }
+
+    /**
+     * Returns the tombstone flags, indexed by slot.
+     */
+    BitSet deadSlots() {
+        BitSet dead = new BitSet(slots);
+        if (live < slots) {
+            addDead(root, height, 0, dead);
+        }
+        return dead;
+    }
+
+    private void addDead(Node node, int level, int firstSlot, BitSet dead) {
+        if (level == 0) {
+            int inLeaf = Math.min(slots - firstSlot, 1 << LEAF_BITS);
+            long deadFlags = ~node.flags & (inLeaf == 1 << LEAF_BITS ? -1L : (1L << inLeaf) - 1);
+            for (long bits = deadFlags; bits != 0; bits &= bits - 1) {
+                dead.set(firstSlot + Long.numberOfTrailingZeros(bits));
+            }
+            return;
+        }
+        int childSlots = 1 << (LEAF_BITS + BITS * (level - 1));
+        for (int i = 0; i < WIDTH && node.children[i] != null; i++) {
+            addDead(node.children[i], level - 1, firstSlot + i * childSlots, dead);
+        }
+    }
+
+    /**
+     * Returns the slot that holds the live task at the given user-visible index.
+     */
+    int select(int index) {
+        if (index < 0 || index >= live) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + live);
+        }
+        if (live == slots) {
+            return index;
+        }
+        Node node = root;
+        int slot = 0;
+        int remaining = index;
+        for (int level = height; level > 0; level--) {
+            int i = 0;
+            while (remaining >= node.counts[i]) {
+                remaining -= node.counts[i];
+                i++;
+            }
+            slot += i << (LEAF_BITS + BITS * (level - 1));
+            node = node.children[i];
+        }
+        long bits = node.flags;
+        for (int i = 0; i < remaining; i++) {
+            bits &= bits - 1;
+        }
+        return slot + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns the user-visible index of the task in the given live slot.
+     */
+    int rank(int slot) {
+        if (live == slots) {
+            return slot;
+        }
+        Node node = root;
+        int index = 0;
+        for (int level = height; level > 0; level--) {
+            int child = childOf(slot, level);
+            for (int i = 0; i < child; i++) {
+                index += node.counts[i];
+            }
+            node = node.children[child];
+        }
+        return index + Long.bitCount(node.flags & ((1L << slot) - 1));
+    }
+}
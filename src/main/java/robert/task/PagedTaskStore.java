@@ -0,0 +1,101 @@
+package robert.task;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Holds tasks as record numbers into a {@link TaskSource}, decoding them only when accessed.
+ * Tasks that are added or changed are kept on the heap ("pinned"), so changes survive even
+ * if the source hands out a fresh object for the same record later.
+ * Memory use is two slots per task, plus whatever is pinned. The record numbers are kept in an
+ * {@link IntColumn} and the pinned tasks in a {@link PersistentVector}, so {@link #copy} and
+ * {@link #snapshot} take O(1) and share everything that did not change after them.
+ */
+class PagedTaskStore implements TaskStore {
+    private final TaskSource source;
+    private IntColumn records;
+    private PersistentVector<Task> pinned;
+
+    PagedTaskStore(TaskSource source) {
+        this.source = source;
+        this.records = new IntColumn();
+        this.pinned = new PersistentVector<>();
+        for (int i = 0; i < source.size(); i++) {
+            records.add(i);
+            pinned.add(null);
+        }
+    }
+
+    private PagedTaskStore(TaskSource source, IntColumn records, PersistentVector<Task> pinned) {
+        this.source = source;
+        this.records = records;
+        this.pinned = pinned;
+    }
+
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public Task get(int index) {
+        Task t = pinned.get(index);
+        return t != null ? t : source.get(records.get(index));
+    }
+
+    @Override
+    public void setDone(int index, boolean isDone) {
+        pinned.set(index, get(index).withDone(isDone));
+    }
+
+    @Override
+    public void add(Task t) {
+        records.add(-1);
+        pinned.add(t);
+    }
+
+    @Override
+    public void removeSlots(BitSet slots) {
+        IntColumn keptRecords = new IntColumn();
+        PersistentVector<Task> keptPinned = new PersistentVector<>();
+        for (int i = 0; i < size(); i++) {
+            if (!slots.get(i)) {
+                keptRecords.add(records.get(i));
+                keptPinned.add(pinned.get(i));
+            }
+        }
+        records = keptRecords;
+        pinned = keptPinned;
+    }
+
+    @Override
+    public void replaceAll(List<Task> tasks) {
+        records = new IntColumn();
+        pinned = new PersistentVector<>();
+        for (Task t : tasks) {
+            add(t);
+        }
+    }
+
+    @Override
+    public TaskStore copy() {
+        return new PagedTaskStore(source, records.copy(), pinned.copy());
+    }
+
+    @Override
+    public List<Task> snapshot() {
+        PagedTaskStore frozen = new PagedTaskStore(source, records.copy(), pinned.copy());
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return frozen.get(index);
+            }
+
+            @Override
+            public int size() {
+                return frozen.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package robert.task;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Holds every task on the heap in a {@link PersistentVector}, so that snapshots and copies of
+ * the store take O(1) time and share all unchanged tasks with it.
+ */
+class PersistentTaskStore implements TaskStore {
+    private PersistentVector<Task> tasks;
+
+    PersistentTaskStore(List<Task> initial) {
+        tasks = new PersistentVector<>();
+        for (Task t : initial) {
+            tasks.add(t);
+        }
+    }
+
+    private PersistentTaskStore(PersistentVector<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    @Override
+    public Task get(int index) {
+        return tasks.get(index);
+    }
+
+    @Override
+    public void setDone(int index, boolean isDone) {
+        tasks.set(index, tasks.get(index).withDone(isDone));
+    }
+
+    @Override
+    public void add(Task t) {
+        tasks.add(t);
+    }
+
+    @Override
+    public void removeSlots(BitSet slots) {
+        PersistentVector<Task> kept = new PersistentVector<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (!slots.get(i)) {
+                kept.add(tasks.get(i));
+            }
+        }
+        tasks = kept;
+    }
+
+    @Override
+    public void replaceAll(List<Task> newTasks) {
+        tasks = new PersistentTaskStore(newTasks).tasks;
+    }
+
+    @Override
+    public List<Task> snapshot() {
+        PersistentVector<Task> frozen = tasks.copy();
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return frozen.get(index);
+            }
+
+            @Override
+            public int size() {
+                return frozen.size();
+            }
+        };
+    }
+
+    @Override
+    public TaskStore copy() {
+        return new PersistentTaskStore(tasks.copy());
+    }
+}
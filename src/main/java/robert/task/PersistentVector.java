@@ -0,0 +1,107 @@
+package robert.task;
+
+/**
+ * A list that can be copied in O(1): a trie with 32 entries per node, where a copy shares
+ * every node with the original. A change to either copies only the nodes on the path to the
+ * changed entry (at most four for a million entries), so keeping many versions costs memory
+ * in proportion to the changes between them, not to their size.
+ *
+ * <p>Every vector owns the nodes it created since it was last copied and changes those in
+ * place, so a vector that is never copied costs about as much as an array list.
+ */
+class PersistentVector<E> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private Node root;
+    /** The number of index bits below the root: BITS times the number of inner levels. */
+    private int shift;
+    private int size;
+    private Object owner = new Object();
+
+    private static class Node {
+        private final Object owner;
+        private final Object[] array;
+
+        Node(Object owner, Object[] array) {
+            this.owner = owner;
+            this.array = array;
+        }
+    }
+
+    PersistentVector() {
+        root = new Node(owner, new Object[WIDTH]);
+    }
+
+    private PersistentVector(Node root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    E get(int index) {
+        checkIndex(index);
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.array[(index >>> level) & MASK];
+        }
+        return (E) node.array[index & MASK];
+    }
+
+    void set(int index, E element) {
+        checkIndex(index);
+        leafFor(index).array[index & MASK] = element;
+    }
+
+    void add(E element) {
+        if (size == 1 << (shift + BITS)) {
+            Node newRoot = new Node(owner, new Object[WIDTH]);
+            newRoot.array[0] = root;
+            root = newRoot;
+            shift += BITS;
+        }
+        leafFor(size).array[size & MASK] = element;
+        size++;
+    }
+
+    /**
+     * Returns a copy that shares all nodes with this vector. Neither sees later changes to the other.
+     */
+    PersistentVector<E> copy() {
+        owner = new Object();
+        return new PersistentVector<>(root, shift, size);
+    }
+
+    /**
+     * Returns the leaf that holds the given index, copying the nodes on the way to it that
+     * this vector does not own, and creating missing ones.
+     */
+    private Node leafFor(int index) {
+        root = editable(root);
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            int i = (index >>> level) & MASK;
+            Node child = (Node) node.array[i];
+            child = child == null ? new Node(owner, new Object[WIDTH]) : editable(child);
+            node.array[i] = child;
+            node = child;
+        }
+        return node;
+    }
+
+    private Node editable(Node node) {
+        return node.owner == owner ? node : new Node(owner, node.array.clone());
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package robert.task;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A growable list of task ids that share some indexed term, e.g. a word of their description.
+ * Ids are kept in the order they were added and sorted in place the first time a sorted view
+ * is needed; since new tasks get ever larger ids, they usually stay sorted after that.
+ * {@link #union}, {@link #intersect} and {@link #retainIn} return sorted, duplicate-free arrays.
+ */
+class Postings {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] ids = new int[2];
+    private int size;
+    private boolean isSorted = true;
+
+    /**
+     * Adds an id, unless it is the id that was added last.
+     */
+    void add(int id) {
+        if (size > 0 && ids[size - 1] == id) {
+            return;
+        }
+        if (size > 0 && ids[size - 1] > id) {
+            isSorted = false;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(ids[i]);
+        }
+    }
+
+    private void sort() {
+        if (isSorted) {
+            return;
+        }
+        Arrays.sort(ids, 0, size);
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[unique++] = ids[i];
+            }
+        }
+        size = unique;
+        isSorted = true;
+    }
+
+    /**
+     * Removes the given id, if present.
+     */
+    void remove(int id) {
+        sort();
+        int i = Arrays.binarySearch(ids, 0, size, id);
+        if (i >= 0) {
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Returns the ids as a sorted, duplicate-free array.
+     */
+    int[] toSortedArray() {
+        sort();
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Returns the given sorted ids that also occur in these postings. Each id is looked up by
+     * binary search, so this is cheap when {@code candidates} is much shorter than the postings.
+     */
+    int[] retainIn(int[] candidates) {
+        sort();
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int id : candidates) {
+            if (Arrays.binarySearch(ids, 0, size, id) >= 0) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the sorted, duplicate-free union of the ids in all the given postings.
+     */
+    static int[] union(Iterable<Postings> postings) {
+        int total = 0;
+        for (Postings p : postings) {
+            total += p.size;
+        }
+        if (total == 0) {
+            return EMPTY;
+        }
+        int[] all = new int[total];
+        int filled = 0;
+        for (Postings p : postings) {
+            System.arraycopy(p.ids, 0, all, filled, p.size);
+            filled += p.size;
+        }
+        Arrays.sort(all);
+        int unique = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[unique++] = all[i];
+            }
+        }
+        return unique == all.length ? all : Arrays.copyOf(all, unique);
+    }
+
+    /**
+     * Returns the ids that occur in both sorted, duplicate-free arrays.
+     */
+    static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
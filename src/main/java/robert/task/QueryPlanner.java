@@ -0,0 +1,106 @@
+package robert.task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.NavigableMap;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Decides how a {@link TaskQuery} is answered from the indexes of a {@link TaskList}.
+ *
+ * <p>Every part of the query that an index can answer becomes a source of candidate ids with
+ * an estimated size: the shortest trigram posting list for a text, the number of tasks of a
+ * type or with a done flag, or the number of deadlines in a date range. The most selective
+ * source produces the first candidates. The others then narrow them down, cheapest first:
+ * bit-set sources by membership tests, other sources by intersecting sorted ids if they are
+ * not much larger than the candidates so far. Only the remaining candidates are looked up as
+ * Task objects and checked against the whole query.
+ */
+class QueryPlanner {
+    /** How much larger than the candidates a source may be and still be worth intersecting. */
+    private static final long MERGE_RATIO = 16;
+
+    private final ArrayList<Source> sources = new ArrayList<>();
+
+    /**
+     * One part of a query that an index can produce candidates for.
+     */
+    private static class Source {
+        private final long estimate;
+        private final Supplier<int[]> ids;
+        private final IntPredicate member;
+
+        Source(long estimate, Supplier<int[]> ids, IntPredicate member) {
+            this.estimate = estimate;
+            this.ids = ids;
+            this.member = member;
+        }
+    }
+
+    /**
+     * Plans the given query.
+     *
+     * @param query      The query to answer.
+     * @param attributes Supplies the index of types, done flags and dates; only used if needed.
+     * @param textIndex  Returns the description index to use for a lowercase text.
+     */
+    QueryPlanner(TaskQuery query, Supplier<AttributeIndex> attributes,
+            Function<String, DescriptionIndex> textIndex) {
+        for (String text : query.getTexts()) {
+            String needle = text.toLowerCase();
+            DescriptionIndex index = textIndex.apply(needle);
+            sources.add(new Source(index.estimate(needle), () -> index.candidates(needle), null));
+        }
+        if (query.getType() != null) {
+            BitSet ids = attributes.get().ofType(query.getType());
+            sources.add(new Source(ids.cardinality(), () -> ids.stream().toArray(), ids::get));
+        }
+        if (query.getDone() != null) {
+            BitSet ids = query.getDone() ? attributes.get().done() : attributes.get().notDone();
+            sources.add(new Source(ids.cardinality(), () -> ids.stream().toArray(), ids::get));
+        }
+        if (query.hasDateRange()) {
+            NavigableMap<LocalDate, Postings> range = attributes.get()
+                    .deadlinesBetween(query.getAfter(), query.getBefore());
+            long estimate = 0;
+            for (Postings ids : range.values()) {
+                estimate += ids.size();
+            }
+            sources.add(new Source(estimate, () -> Postings.union(range.values()), null));
+        }
+        sources.sort(Comparator.comparingLong((Source s) -> s.estimate));
+    }
+
+    /**
+     * Returns the sorted ids of the candidates for the query, a superset of the ids of the
+     * matching tasks, or null if no part of the query is indexed and every task must be checked.
+     *
+     * @return The candidate ids, or null.
+     */
+    int[] candidates() {
+        if (sources.isEmpty()) {
+            return null;
+        }
+        int[] ids = sources.get(0).ids.get();
+        for (int i = 1; i < sources.size() && ids.length > 0; i++) {
+            Source source = sources.get(i);
+            if (source.member != null) {
+                int kept = 0;
+                for (int id : ids) {
+                    if (source.member.test(id)) {
+                        ids[kept++] = id;
+                    }
+                }
+                ids = Arrays.copyOf(ids, kept);
+            } else if (source.estimate <= ids.length * MERGE_RATIO) {
+                ids = Postings.intersect(ids, source.ids.get());
+            }
+        }
+        return ids;
+    }
+}
@@ -2,10 +2,13 @@ package robert.task;
 
 /**
  * Represents a single task with a description and a done-status.
+ * Once added to a TaskList, a task also has a stable id that does not change when
+ * other tasks are sorted or deleted, or when the list is saved and loaded again.
  */
 public class Task {
     protected String description;
     protected boolean isDone;
+    protected int id;
 
     /**
      * Constructs a Task with the given description.
@@ -18,17 +21,12 @@ public class Task {
     }
 
     /**
-     * Marks this task as done.
-     */
-    public void markAsDone() {
-        isDone = true;
-    }
-
-    /**
-     * Marks this task as not done.
+     * Returns whether this task is done.
+     *
+     * @return True if the task is done.
      */
-    public void markAsNotDone() {
-        isDone = false;
+    public boolean isDone() {
+        return isDone;
     }
 
     /**
@@ -40,6 +38,56 @@ public class Task {
         return (isDone ? "X" : " ");
     }
 
+    /**
+     * Returns the id of the task, or 0 if it has not been assigned one yet.
+     *
+     * @return The task's id.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id of the task. Ids are assigned by {@link TaskList} and restored by storage;
+     * they should not be changed afterwards.
+     *
+     * @param id The task's id, a positive number.
+     */
+    public void setId(int id) {
+        assert id > 0 : "Task ids must be positive";
+        this.id = id;
+    }
+
+    /**
+     * Returns a copy of this task, with the same id, that is done or not done as given.
+     * Tasks are never changed in place; a TaskList marks them this way, so that snapshots
+     * taken earlier keep the old task.
+     *
+     * @param isDone Whether the copy is done.
+     * @return The copy.
+     */
+    public final Task withDone(boolean isDone) {
+        Task copy = copy();
+        copy.id = id;
+        copy.isDone = isDone;
+        return copy;
+    }
+
+    /**
+     * Returns a new task of the same type with the same description and details.
+     */
+    Task copy() {
+        return new Task(description);
+    }
+
+    /**
+     * Replaces the description with an equal copy shared through the {@link DescriptionPool},
+     * so that tasks with the same description do not each keep their own String.
+     */
+    void shareDescription() {
+        description = DescriptionPool.shared().intern(description);
+    }
+
     /**
      * Returns the description of the task.
      *
@@ -49,6 +97,16 @@ public class Task {
         return description;
     }
 
+    /**
+     * Appends the string representation of this task to the given builder, without building
+     * it as a String of its own first. Subclasses add their type and details here.
+     *
+     * @param sb The builder to append to.
+     */
+    public void appendTo(StringBuilder sb) {
+        sb.append('[').append(isDone ? 'X' : ' ').append("] ").append(description);
+    }
+
     /**
      * Returns the string representation of this task, including done-status.
      *
@@ -56,6 +114,8 @@ public class Task {
      */
     @Override
     public String toString() {
-        return "[" + getStatusIcon() + "] " + description;
+        StringBuilder sb = new StringBuilder(description.length() + 48);
+        appendTo(sb);
+        return sb.toString();
     }
 }
@@ -1,18 +1,104 @@
 package robert.task;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.Predicate;
 
 /**
  * Maintains a list of Task objects and provides operations to modify them.
+ * A TaskList either holds all of its tasks on the heap, or is paged: tasks stay in a
+ * {@link TaskSource} (e.g. the task file) and are decoded only when accessed, or is columnar:
+ * tasks are kept in primitive arrays and decoded when accessed.
+ *
+ * <p>Every task in the list has a unique id, assigned in increasing order as tasks are added.
+ * Tasks can be looked up by id through a hash index that is built on first use and kept up
+ * to date afterwards.
+ *
+ * <p>Removing a task only leaves a tombstone in its slot; a counting tree over the live slots
+ * ({@link LiveSlots}) keeps the numbering seen by the user correct in O(log n). Once at least
+ * {@value #MIN_TOMBSTONES_TO_COMPACT} tombstones make up a quarter of the slots, they are all
+ * dropped in one linear pass, so a long run of deletes costs O(log n) amortised per delete
+ * instead of O(n) each.
+ *
+ * <p>{@link #find} answers keyword searches from indexes over the descriptions: a
+ * {@link TrigramIndex} for keywords of at least three characters and a {@link WordIndex} for
+ * shorter ones. Each is built on the first search that needs it and then updated as tasks
+ * are added and removed. Queries that also filter by type, done flag or date additionally use an
+ * {@link AttributeIndex}, and a {@link QueryPlanner} decides which index to start from.
+ *
+ * <p>The same index keeps deadlines ordered by date, so {@link #deadlinesByDate} and
+ * {@link #sortDeadlines} read them in order instead of sorting the list. Scheduled events are
+ * kept in an {@link IntervalTree} for {@link #eventsBetween} and {@link #eventConflicts}.
+ *
+ * <p>A TaskList is thread-safe: every operation holds the list's lock, so changes are applied
+ * one at a time. Tasks are never changed in place once added; marking a task replaces it with
+ * a changed copy. Readers that need a consistent view, e.g. a background saver, take a
+ * {@link #snapshot}, which stays unchanged and can be read without the lock.
+ *
+ * <p>Changes can be undone and redone one {@link #checkpoint} at a time. Every store keeps its
+ * contents in blocks that copies share: a heap TaskList keeps its tasks in a
+ * {@link PersistentVector}, and paged and columnar ones keep their columns in
+ * {@link IntColumn}s. Each checkpoint therefore copies the list in O(1), and the versions only
+ * cost the blocks that changed between them. The indexes are not versioned: undo and redo
+ * drop them, and they are rebuilt on their next use.
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 64;
+    private static final int MAX_TOMBSTONE_SHARE = 4;
+    private static final int MAX_UNDO_STEPS = 100;
+
+    private TaskStore store;
+    private LiveSlots live;
+    private int nextId = 1;
+    private HashMap<Integer, Integer> idSlots;
+    private WordIndex wordIndex;
+    private TrigramIndex trigramIndex;
+    private AttributeIndex attributeIndex;
+    private IntervalTree eventIndex;
+    /** The tasks as last handed out by {@link #snapshot}, or null if the list has changed since. */
+    private List<Task> lastSnapshot;
+    /** Whether the deadlines are known to come first, by date, as {@link #sortDeadlines} leaves them. */
+    private boolean isDeadlineOrder;
+    /** The state at the last checkpoint, or null before the first one. */
+    private Version checkpoint;
+    /** Whether the tasks have changed since the last checkpoint. */
+    private boolean isChanged;
+    private final ArrayDeque<Version> undoVersions = new ArrayDeque<>();
+    private final ArrayDeque<Version> redoVersions = new ArrayDeque<>();
+    /** The step number that the next checkpoint gets. */
+    private long nextStep = 1;
+
+    /**
+     * The tasks at some checkpoint. The store and live slots are copies that are never changed.
+     */
+    private static class Version {
+        private final TaskStore store;
+        private final LiveSlots live;
+        private final boolean isDeadlineOrder;
+        private final long step;
+
+        Version(TaskStore store, LiveSlots live, boolean isDeadlineOrder, long step) {
+            this.store = store;
+            this.live = live;
+            this.isDeadlineOrder = isDeadlineOrder;
+            this.step = step;
+        }
+    }
 
     /**
      * Constructs an empty TaskList.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(new ArrayList<>());
     }
 
     /**
@@ -21,17 +107,117 @@ public class TaskList {
      * @param tasks The initial list of tasks.
      */
     public TaskList(ArrayList<Task> tasks) {
-        this.tasks = tasks;
+        this(new PersistentTaskStore(tasks));
+        assignIds(tasks);
+    }
+
+    private TaskList(TaskStore store) {
+        this.store = store;
+        this.live = new LiveSlots(store.size());
+    }
+
+    /**
+     * Gives every task without an id the next free id, in order.
+     */
+    private void assignIds(List<Task> tasks) {
+        for (Task t : tasks) {
+            nextId = Math.max(nextId, t.getId() + 1);
+        }
+        for (Task t : tasks) {
+            if (t.getId() == 0) {
+                t.setId(nextId++);
+            }
+        }
+    }
+
+    /**
+     * Constructs a TaskList that keeps its tasks in columns of primitive arrays, with all texts
+     * in one shared arena ({@link ColumnarTaskStore}). This takes a fraction of the memory of
+     * one object per task, and filters read the columns directly; tasks are decoded into
+     * short-lived Task objects when accessed, so changing them has no effect on the list.
+     *
+     * @param tasks The initial tasks, in order.
+     * @return The columnar TaskList.
+     */
+    public static TaskList columnar(List<Task> tasks) {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        TaskList list = new TaskList(store);
+        list.assignIds(tasks);
+        for (Task t : tasks) {
+            store.add(t);
+        }
+        list.live.reset(store.size());
+        return list;
     }
 
     /**
-     * Adds a task to the end of the list.
+     * Constructs a paged TaskList that decodes tasks from the given source only when they are
+     * accessed. Tasks that are added or changed are kept on the heap. The source must hand out
+     * tasks that already have ids, and the caller should {@link #advanceNextId} past them.
      *
-     * @param t The Task to add.
+     * @param source The source holding the initial tasks.
+     * @return The paged TaskList.
      */
-    public void add(Task t) {
-        assert t != null : "Cannot add a null Task to TaskList";
-        tasks.add(t);
+    public static TaskList paged(TaskSource source) {
+        assert source != null : "A paged TaskList needs a non-null TaskSource";
+        return new TaskList(new PagedTaskStore(source));
+    }
+
+    /**
+     * Returns whether this TaskList decodes its tasks lazily from a TaskSource.
+     *
+     * @return True if this TaskList is paged.
+     */
+    public synchronized boolean isPaged() {
+        return store instanceof PagedTaskStore;
+    }
+
+    /**
+     * Returns whether this TaskList keeps its tasks in columns.
+     *
+     * @return True if this TaskList is columnar.
+     */
+    public synchronized boolean isColumnar() {
+        return store instanceof ColumnarTaskStore;
+    }
+
+    /**
+     * Adds a copy of a task to the end of the list; the given task is left as it is. A task
+     * without an id, or with an id that may already have been given out, gets the next id.
+     *
+     * @param task The Task to add.
+     * @return The task as added, with its id.
+     */
+    public synchronized Task add(Task task) {
+        assert task != null : "Cannot add a null Task to TaskList";
+        Task t = task.withDone(task.isDone());
+        if (t.getId() < nextId) {
+            t.setId(nextId);
+        }
+        nextId = t.getId() + 1;
+        changed();
+        t.shareDescription();
+        if (t instanceof Deadline) {
+            isDeadlineOrder = false;
+        }
+        store.add(t);
+        int slot = live.append();
+        if (idSlots != null) {
+            idSlots.put(t.getId(), slot);
+        }
+        if (wordIndex != null) {
+            wordIndex.add(t);
+        }
+        if (trigramIndex != null) {
+            trigramIndex.add(t);
+        }
+        if (attributeIndex != null) {
+            attributeIndex.add(t);
+        }
+        if (eventIndex != null && isScheduledEvent(t)) {
+            eventIndex.add((Event) t);
+        }
+        return t;
     }
 
     /**
@@ -40,8 +226,128 @@ public class TaskList {
      * @param index The index of the task to retrieve.
      * @return The Task at that index.
      */
-    public Task get(int index) {
-        return tasks.get(index);
+    public synchronized Task get(int index) {
+        return store.get(live.select(index));
+    }
+
+    /**
+     * Marks the task at the specified index as done.
+     *
+     * @param index The index of the task to mark.
+     * @return The marked Task.
+     */
+    public synchronized Task mark(int index) {
+        int slot = live.select(index);
+        store.setDone(slot, true);
+        changed();
+        Task t = store.get(slot);
+        if (attributeIndex != null) {
+            attributeIndex.setDone(t.getId(), true);
+        }
+        return t;
+    }
+
+    /**
+     * Marks the task at the specified index as not done.
+     *
+     * @param index The index of the task to unmark.
+     * @return The unmarked Task.
+     */
+    public synchronized Task unmark(int index) {
+        int slot = live.select(index);
+        store.setDone(slot, false);
+        changed();
+        Task t = store.get(slot);
+        if (attributeIndex != null) {
+            attributeIndex.setDone(t.getId(), false);
+        }
+        return t;
+    }
+
+    /**
+     * Marks the tasks at the given indexes as done, or as not done, as one change.
+     *
+     * @param indexes Distinct indexes in increasing order. All are checked before any task changes.
+     * @param isDone  Whether the tasks become done.
+     * @return The changed tasks, in list order.
+     */
+    public synchronized List<Task> setDoneAll(int[] indexes, boolean isDone) {
+        int[] slots = slotsOf(indexes);
+        ArrayList<Task> changedTasks = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            store.setDone(slot, isDone);
+            Task t = store.get(slot);
+            if (attributeIndex != null) {
+                attributeIndex.setDone(t.getId(), isDone);
+            }
+            changedTasks.add(t);
+        }
+        if (slots.length > 0) {
+            changed();
+        }
+        return changedTasks;
+    }
+
+    /**
+     * Removes the tasks at the given indexes in a single linear pass. The indexes refer to the
+     * list before any of the tasks is removed.
+     *
+     * @param indexes Distinct indexes in increasing order. All are checked before any task is removed.
+     * @return The removed tasks, in list order.
+     */
+    public synchronized List<Task> removeAll(int[] indexes) {
+        ArrayList<Task> removed = new ArrayList<>(indexes.length);
+        if (indexes.length == 1) {
+            removed.add(remove(indexes[0]));
+            return removed;
+        }
+        int[] slots = slotsOf(indexes);
+        BitSet doomed = live.deadSlots();
+        for (int slot : slots) {
+            Task t = store.get(slot);
+            removed.add(t);
+            doomed.set(slot);
+            forget(t);
+        }
+        if (!removed.isEmpty()) {
+            changed();
+            compact(doomed);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the indexes of the tasks that are done, in one pass over the done flags. On a paged
+     * or columnar TaskList, no tasks are decoded.
+     *
+     * @return The indexes in increasing order.
+     */
+    public synchronized int[] doneIndexes() {
+        int[] indexes = new int[16];
+        int count = 0;
+        int index = 0;
+        for (int slot = 0; slot < live.slotCount(); slot++) {
+            if (!live.isLive(slot)) {
+                continue;
+            }
+            if (store.isDone(slot)) {
+                if (count == indexes.length) {
+                    indexes = Arrays.copyOf(indexes, count * 2);
+                }
+                indexes[count++] = index;
+            }
+            index++;
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    private int[] slotsOf(int[] indexes) {
+        int[] slots = new int[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            assert i == 0 || indexes[i] > indexes[i - 1] : "Indexes must be distinct and in increasing order";
+            slots[i] = live.select(indexes[i]);
+        }
+        return slots;
     }
 
     /**
@@ -50,8 +356,299 @@ public class TaskList {
      * @param index The index of the task to remove.
      * @return The removed Task.
      */
-    public Task remove(int index) {
-        return tasks.remove(index);
+    public synchronized Task remove(int index) {
+        int slot = live.select(index);
+        Task removed = store.get(slot);
+        live.kill(slot);
+        changed();
+        forget(removed);
+        int tombstones = live.tombstones();
+        if (tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones * MAX_TOMBSTONE_SHARE >= live.slotCount()) {
+            compact(live.deadSlots());
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every task that matches the given condition in a single linear pass.
+     *
+     * @param condition The condition that removed tasks match.
+     * @return The removed tasks, in list order.
+     */
+    public synchronized List<Task> removeIf(Predicate<Task> condition) {
+        ArrayList<Task> removed = new ArrayList<>();
+        BitSet doomed = live.deadSlots();
+        for (int slot = 0; slot < live.slotCount(); slot++) {
+            if (!live.isLive(slot)) {
+                continue;
+            }
+            Task t = store.get(slot);
+            if (condition.test(t)) {
+                removed.add(t);
+                doomed.set(slot);
+                forget(t);
+            }
+        }
+        if (!removed.isEmpty()) {
+            changed();
+            compact(doomed);
+        }
+        return removed;
+    }
+
+    /**
+     * Takes a removed task out of the id, description and attribute indexes.
+     */
+    private void forget(Task t) {
+        if (idSlots != null) {
+            idSlots.remove(t.getId());
+        }
+        if (wordIndex != null) {
+            wordIndex.remove();
+        }
+        if (trigramIndex != null) {
+            trigramIndex.remove();
+        }
+        if (attributeIndex != null) {
+            attributeIndex.remove(t);
+        }
+        if (eventIndex != null && isScheduledEvent(t)) {
+            eventIndex.remove((Event) t);
+        }
+    }
+
+    private static boolean isScheduledEvent(Task t) {
+        return t instanceof Event && ((Event) t).isScheduled();
+    }
+
+    /**
+     * Returns the tasks whose description contains the given keyword, ignoring case,
+     * in list order. Candidates come from the trigram index (or, for keywords shorter than
+     * three characters, the word index) and only they are checked against the keyword, so the
+     * cost depends on the number of candidates rather than on the size of the list.
+     * The first search builds the index; on a paged TaskList this decodes every task once.
+     *
+     * @param keyword The keyword to search for, not blank.
+     * @return The matching tasks.
+     */
+    public synchronized List<Task> find(String keyword) {
+        TaskQuery query = new TaskQuery();
+        query.addText(keyword);
+        return find(query);
+    }
+
+    /**
+     * Returns the tasks that match the given query, in list order. The {@link QueryPlanner}
+     * intersects the candidates of the indexed parts of the query, most selective first, so
+     * only those tasks are decoded and checked against the whole query. A query without any
+     * texts or filters checks every task.
+     *
+     * @param query The query to answer.
+     * @return The matching tasks.
+     */
+    public synchronized List<Task> find(TaskQuery query) {
+        int[] candidates = new QueryPlanner(query, this::attributeIndex, this::descriptionIndex).candidates();
+        ArrayList<Task> matches = new ArrayList<>();
+        if (candidates == null) {
+            for (int slot = 0; slot < live.slotCount(); slot++) {
+                if (!live.isLive(slot)
+                        || !query.matchesAttributes(store.typeOf(slot), store.isDone(slot), store.dueDate(slot))) {
+                    continue;
+                }
+                Task t = store.get(slot);
+                if (query.matches(t)) {
+                    matches.add(t);
+                }
+            }
+            return matches;
+        }
+
+        int[] slots = new int[candidates.length];
+        int count = 0;
+        for (int id : candidates) {
+            Integer slot = slotOf(id);
+            if (slot != null) {
+                slots[count++] = slot;
+            }
+        }
+        Arrays.sort(slots, 0, count);
+        for (int i = 0; i < count; i++) {
+            Task t = store.get(slots[i]);
+            if (query.matches(t)) {
+                matches.add(t);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the up-to-date description index to search for the given lowercase text.
+     */
+    private DescriptionIndex descriptionIndex(String needle) {
+        if (needle.length() >= TrigramIndex.GRAM) {
+            if (trigramIndex == null || trigramIndex.isStale()) {
+                trigramIndex = fill(new TrigramIndex());
+            }
+            return trigramIndex;
+        }
+        if (wordIndex == null || wordIndex.isStale()) {
+            wordIndex = fill(new WordIndex());
+        }
+        return wordIndex;
+    }
+
+    /**
+     * Returns the attribute index, building it on first use.
+     */
+    private AttributeIndex attributeIndex() {
+        if (attributeIndex == null) {
+            attributeIndex = new AttributeIndex();
+            for (int slot = 0; slot < live.slotCount(); slot++) {
+                if (live.isLive(slot)) {
+                    attributeIndex.add(store.idOf(slot), store.typeOf(slot), store.isDone(slot), store.dueDate(slot));
+                }
+            }
+        }
+        return attributeIndex;
+    }
+
+    /**
+     * Returns up to {@code limit} tasks whose descriptions contain words similar to those of
+     * the query, best matches first: tasks matching more query words rank higher, then tasks
+     * with fewer edits in total, then tasks earlier in the list. A query word matches a word
+     * of the description if it is at most {@link #maxTypos} edits (Levenshtein distance) away.
+     * Similar words are looked up in a BK-tree of the vocabulary, so the cost depends on the
+     * number of distinct words and matches rather than on the size of the list.
+     *
+     * @param query The words to search for.
+     * @param limit The maximum number of tasks to return.
+     * @return The best matching tasks, best first.
+     */
+    public synchronized List<Task> findSimilar(String query, int limit) {
+        assert limit > 0 : "The result limit must be positive";
+        if (wordIndex == null || wordIndex.isStale()) {
+            wordIndex = fill(new WordIndex());
+        }
+        HashMap<Integer, int[]> scores = new HashMap<>();
+        for (String word : WordIndex.split(query.toLowerCase())) {
+            HashMap<Integer, Integer> distances = new HashMap<>();
+            wordIndex.forEachSimilarWord(word, maxTypos(word), (postings, distance) ->
+                    postings.forEach(id -> distances.merge(id, distance, Math::min)));
+            distances.forEach((id, distance) -> {
+                int[] score = scores.computeIfAbsent(id, k -> new int[2]);
+                score[0]++;
+                score[1] += distance;
+            });
+        }
+
+        ArrayList<int[]> ranked = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> {
+            Integer slot = slotOf(id);
+            if (slot != null) {
+                ranked.add(new int[] {slot, score[0], score[1]});
+            }
+        });
+        ranked.sort((a, b) -> a[1] != b[1] ? Integer.compare(b[1], a[1])
+                : a[2] != b[2] ? Integer.compare(a[2], b[2]) : Integer.compare(a[0], b[0]));
+
+        ArrayList<Task> matches = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, ranked.size()); i++) {
+            matches.add(store.get(ranked.get(i)[0]));
+        }
+        return matches;
+    }
+
+    /**
+     * Returns how many edits a query word may be away from a word to count as a match:
+     * none for words of up to two characters, one for up to five, and two for longer words.
+     */
+    private static int maxTypos(String word) {
+        return word.length() <= 2 ? 0 : word.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Adds every task in the list to the given, empty index.
+     */
+    private <T extends DescriptionIndex> T fill(T index) {
+        for (int slot = 0; slot < live.slotCount(); slot++) {
+            if (live.isLive(slot)) {
+                index.add(store.get(slot));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Physically drops the given slots from the store, including any existing tombstones.
+     */
+    private void compact(BitSet doomed) {
+        if (idSlots != null) {
+            int[] newSlots = new int[live.slotCount()];
+            int kept = 0;
+            for (int slot = 0; slot < newSlots.length; slot++) {
+                newSlots[slot] = doomed.get(slot) ? -1 : kept++;
+            }
+            idSlots.replaceAll((id, slot) -> newSlots[slot]);
+        }
+        store.removeSlots(doomed);
+        live.reset(store.size());
+    }
+
+    /**
+     * Returns the task with the given id.
+     * The first lookup builds the id index; on a paged TaskList this decodes every task once.
+     * On a paged or columnar TaskList, the task is decoded on access; use {@link #mark} and
+     * {@link #unmark} to change it.
+     *
+     * @param id The id of the task.
+     * @return The task, or null if no task in the list has that id.
+     */
+    public synchronized Task findById(int id) {
+        Integer slot = slotOf(id);
+        return slot == null ? null : store.get(slot);
+    }
+
+    /**
+     * Returns the current index of the task with the given id, in O(log n) once the
+     * id index has been built.
+     *
+     * @param id The id of the task.
+     * @return Its index, or -1 if no task in the list has that id.
+     */
+    public synchronized int indexOfId(int id) {
+        Integer slot = slotOf(id);
+        return slot == null ? -1 : live.rank(slot);
+    }
+
+    private Integer slotOf(int id) {
+        if (idSlots == null) {
+            idSlots = new HashMap<>();
+            for (int slot = 0; slot < live.slotCount(); slot++) {
+                if (live.isLive(slot)) {
+                    idSlots.put(store.idOf(slot), slot);
+                }
+            }
+        }
+        return idSlots.get(id);
+    }
+
+    /**
+     * Returns the id that the next task added without an id will get.
+     *
+     * @return The next id.
+     */
+    public synchronized int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Makes sure that ids given out from now on are at least the given value, e.g. to avoid
+     * reusing the ids of tasks that were deleted before the list was saved.
+     *
+     * @param minNextId The smallest id that may be given out next.
+     */
+    public synchronized void advanceNextId(int minNextId) {
+        nextId = Math.max(nextId, minNextId);
     }
 
     /**
@@ -59,16 +656,297 @@ public class TaskList {
      *
      * @return The size of the TaskList.
      */
-    public int size() {
-        return tasks.size();
+    public synchronized int size() {
+        return live.liveCount();
     }
 
     /**
-     * Returns the underlying list of tasks.
+     * Returns the deadlines in the list by ascending date, and in list order for the same date.
+     * They come straight from the date index, so once it has been built this takes time in the
+     * order of the number of deadlines rather than the size of the list.
      *
-     * @return An ArrayList of Task objects.
+     * @return The deadlines, earliest first.
      */
-    public ArrayList<Task> getTasks() {
+    public synchronized List<Task> deadlinesByDate() {
+        return deadlinesDue(null, null);
+    }
+
+    /**
+     * Returns the deadlines due from {@code from} to {@code to}, both inclusive, by ascending
+     * date. The range is looked up in the date index in O(log d) for d distinct dates, so the
+     * cost depends on the number of deadlines returned rather than on the size of the list.
+     *
+     * @param from The earliest due date, or null for no lower limit.
+     * @param to   The latest due date, or null for no upper limit.
+     * @return The deadlines due in the range, earliest first.
+     */
+    public synchronized List<Task> deadlinesDue(LocalDate from, LocalDate to) {
+        return tasksOf(attributeIndex().deadlinesDue(from, to).values());
+    }
+
+    /**
+     * Returns the live tasks with the ids in the given postings, in their order, and in list
+     * order within each of them.
+     */
+    private List<Task> tasksOf(Iterable<Postings> postings) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (Postings ids : postings) {
+            int[] slots = new int[ids.size()];
+            int count = 0;
+            for (int id : ids.toSortedArray()) {
+                Integer slot = slotOf(id);
+                if (slot != null) {
+                    slots[count++] = slot;
+                }
+            }
+            Arrays.sort(slots, 0, count);
+            for (int i = 0; i < count; i++) {
+                tasks.add(store.get(slots[i]));
+            }
+        }
         return tasks;
     }
+
+    /**
+     * Returns the scheduled events that take place at some time from {@code from} up to (but
+     * excluding) {@code to}, by start time. They are looked up in the interval tree of events,
+     * in O(log n + k) for k results; the first lookup builds the tree.
+     *
+     * @param from The start of the period.
+     * @param to   The end of the period, exclusive.
+     * @return The events overlapping the period, earliest start first.
+     */
+    public synchronized List<Task> eventsBetween(LocalDateTime from, LocalDateTime to) {
+        ArrayList<Task> events = new ArrayList<>();
+        eventIndex().forEachOverlapping(from, to, id -> {
+            Integer slot = slotOf(id);
+            if (slot != null) {
+                events.add(store.get(slot));
+            }
+        });
+        return events;
+    }
+
+    /**
+     * Returns every pair of scheduled events whose times overlap. The events are walked by start
+     * time in the interval tree, so this takes O(n + k) for k pairs instead of comparing every
+     * pair of events.
+     *
+     * @return The overlapping pairs, each with the event that starts first at index 0.
+     */
+    public synchronized List<Task[]> eventConflicts() {
+        ArrayList<Task[]> conflicts = new ArrayList<>();
+        for (int[] pair : eventIndex().overlappingPairs()) {
+            Integer first = slotOf(pair[0]);
+            Integer second = slotOf(pair[1]);
+            if (first != null && second != null) {
+                conflicts.add(new Task[] {store.get(first), store.get(second)});
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Returns the interval tree of scheduled events, building it on first use.
+     */
+    private IntervalTree eventIndex() {
+        if (eventIndex == null) {
+            eventIndex = new IntervalTree();
+            for (int slot = 0; slot < live.slotCount(); slot++) {
+                if (live.isLive(slot) && isScheduledEvent(store.get(slot))) {
+                    eventIndex.add((Event) store.get(slot));
+                }
+            }
+        }
+        return eventIndex;
+    }
+
+    /**
+     * Sorts all Deadlines by ascending date, placing them first in the list,
+     * followed by all other tasks in their current order. Deadlines due on the same date keep
+     * their order. Instead of comparing deadlines, each one is put into the bucket of its date,
+     * and the date index lists the buckets in order, so this is a single linear pass. If nothing
+     * that could disturb the order has happened since the last sort, the list is left alone.
+     * Otherwise, a paged TaskList has to decode every task to do so.
+     *
+     * @return False if the list was already sorted and has not changed.
+     */
+    public synchronized boolean sortDeadlines() {
+        if (isDeadlineOrder) {
+            return false;
+        }
+        NavigableMap<LocalDate, Postings> dates = attributeIndex().deadlinesDue(null, null);
+        HashMap<LocalDate, ArrayList<Task>> byDate = new HashMap<>(dates.size() * 2);
+        for (Map.Entry<LocalDate, Postings> e : dates.entrySet()) {
+            byDate.put(e.getKey(), new ArrayList<>(e.getValue().size()));
+        }
+        ArrayList<Task> others = new ArrayList<>();
+        for (int slot = 0; slot < live.slotCount(); slot++) {
+            if (!live.isLive(slot)) {
+                continue;
+            }
+            Task t = store.get(slot);
+            if (t instanceof Deadline) {
+                byDate.get(((Deadline) t).getByDate()).add(t);
+            } else {
+                others.add(t);
+            }
+        }
+        ArrayList<Task> sorted = new ArrayList<>(size());
+        for (LocalDate date : dates.keySet()) {
+            sorted.addAll(byDate.get(date));
+        }
+        sorted.addAll(others);
+        assert sorted.size() == size() : "Every task must be either a deadline or another task";
+
+        store.replaceAll(sorted);
+        live.reset(sorted.size());
+        changed();
+        if (idSlots != null) {
+            idSlots.clear();
+            for (int slot = 0; slot < sorted.size(); slot++) {
+                idSlots.put(sorted.get(slot).getId(), slot);
+            }
+        }
+        isDeadlineOrder = true;
+        return true;
+    }
+
+    /**
+     * Returns an unmodifiable copy of the current tasks that later changes to this list
+     * do not affect, since changed tasks are replaced rather than changed in place. It can be
+     * read from any thread without holding a lock. The copy is made once and then handed out
+     * again until the list changes. For a paged TaskList, tasks in the copy are still decoded
+     * on access. Tombstones are not compacted for a snapshot; while there are any, the copy
+     * finds each task's slot through a frozen copy of the {@link LiveSlots}, in O(log n).
+     *
+     * @return A snapshot of the tasks.
+     */
+    public synchronized List<Task> snapshot() {
+        if (lastSnapshot == null) {
+            List<Task> slots = store.snapshot();
+            lastSnapshot = live.tombstones() == 0 ? slots : liveTasks(slots, live.copy());
+        }
+        return lastSnapshot;
+    }
+
+    /**
+     * Returns a view of the tasks in the live slots of {@code slots}, in order.
+     */
+    private static List<Task> liveTasks(List<Task> slots, LiveSlots frozen) {
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return slots.get(frozen.select(index));
+            }
+
+            @Override
+            public int size() {
+                return frozen.liveCount();
+            }
+        };
+    }
+
+    /**
+     * Returns the current tasks as a new ArrayList, which the caller may change freely.
+     * For a paged TaskList, this decodes every task.
+     *
+     * @return An ArrayList of Task objects.
+     */
+    public synchronized ArrayList<Task> getTasks() {
+        return new ArrayList<>(snapshot());
+    }
+
+    private void changed() {
+        lastSnapshot = null;
+        isChanged = true;
+    }
+
+    /**
+     * Records the current tasks as a step that {@link #undo} can return to, if they have
+     * changed since the last checkpoint. Recording a step clears the steps that could be redone.
+     * At most {@value #MAX_UNDO_STEPS} steps are kept.
+     */
+    public synchronized void checkpoint() {
+        if (checkpoint != null && !isChanged) {
+            return;
+        }
+        if (checkpoint != null) {
+            undoVersions.push(checkpoint);
+            if (undoVersions.size() > MAX_UNDO_STEPS) {
+                undoVersions.removeLast();
+            }
+            redoVersions.clear();
+        }
+        checkpoint = new Version(store.copy(), live.copy(), isDeadlineOrder, nextStep++);
+        isChanged = false;
+    }
+
+    /**
+     * Returns the number of the step that the current tasks belong to. Steps are numbered in
+     * the order they were first checkpointed, so a step with a higher number was recorded later;
+     * undo and redo return to the number of the step they restore. Changes since the last
+     * checkpoint belong to the step that the next checkpoint records.
+     *
+     * @return The step number.
+     */
+    public synchronized long currentStep() {
+        return checkpoint == null || isChanged ? nextStep : checkpoint.step;
+    }
+
+    /**
+     * Forgets every step that could be undone or redone. The next {@link #checkpoint} becomes
+     * the first step again.
+     */
+    public synchronized void clearHistory() {
+        undoVersions.clear();
+        redoVersions.clear();
+        checkpoint = null;
+    }
+
+    /**
+     * Returns the tasks to the previous checkpoint. Changes made since the last checkpoint are
+     * first recorded as a checkpoint of their own, so they can be redone. Ids are not reused:
+     * tasks added afterwards still get ids past those of the undone tasks.
+     *
+     * @return False if there is nothing to undo.
+     */
+    public synchronized boolean undo() {
+        checkpoint();
+        if (undoVersions.isEmpty()) {
+            return false;
+        }
+        redoVersions.push(checkpoint);
+        restore(undoVersions.pop());
+        return true;
+    }
+
+    /**
+     * Reapplies the last step undone by {@link #undo}, if nothing has changed since.
+     *
+     * @return False if there is nothing to redo.
+     */
+    public synchronized boolean redo() {
+        checkpoint();
+        if (redoVersions.isEmpty()) {
+            return false;
+        }
+        undoVersions.push(checkpoint);
+        restore(redoVersions.pop());
+        return true;
+    }
+
+    private void restore(Version version) {
+        checkpoint = version;
+        store = version.store.copy();
+        live = version.live.copy();
+        isDeadlineOrder = version.isDeadlineOrder;
+        isChanged = false;
+        lastSnapshot = null;
+        idSlots = null;
+        wordIndex = null;
+        trigramIndex = null;
+        attributeIndex = null;
+        eventIndex = null;
+    }
 }
@@ -0,0 +1,142 @@
+package robert.task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes which tasks a search should return. A task matches if its description contains
+ * every text (ignoring case) and it satisfies every filter that has been set.
+ */
+public class TaskQuery {
+    private final ArrayList<String> texts = new ArrayList<>();
+    private Class<? extends Task> type;
+    private Boolean isDone;
+    private LocalDate before;
+    private LocalDate after;
+
+    /**
+     * Adds a text that the descriptions of matching tasks must contain, ignoring case.
+     *
+     * @param text The text, not blank.
+     */
+    public void addText(String text) {
+        assert !text.isBlank() : "Cannot search for a blank text";
+        texts.add(text);
+    }
+
+    /**
+     * Only lets tasks of the given type match.
+     *
+     * @param type Todo.class, Deadline.class or Event.class.
+     */
+    public void setType(Class<? extends Task> type) {
+        this.type = type;
+    }
+
+    /**
+     * Only lets tasks that are done, or only tasks that are not done, match.
+     *
+     * @param isDone Whether matching tasks are done.
+     */
+    public void setDone(boolean isDone) {
+        this.isDone = isDone;
+    }
+
+    /**
+     * Only lets deadlines due strictly before the given date match.
+     *
+     * @param date The date.
+     */
+    public void setBefore(LocalDate date) {
+        this.before = date;
+    }
+
+    /**
+     * Only lets deadlines due strictly after the given date match.
+     *
+     * @param date The date.
+     */
+    public void setAfter(LocalDate date) {
+        this.after = date;
+    }
+
+    public List<String> getTexts() {
+        return Collections.unmodifiableList(texts);
+    }
+
+    public Class<? extends Task> getType() {
+        return type;
+    }
+
+    public Boolean getDone() {
+        return isDone;
+    }
+
+    public LocalDate getBefore() {
+        return before;
+    }
+
+    public LocalDate getAfter() {
+        return after;
+    }
+
+    /**
+     * Returns whether the query restricts deadlines to a range of dates.
+     *
+     * @return True if a before or after date is set.
+     */
+    public boolean hasDateRange() {
+        return before != null || after != null;
+    }
+
+    /**
+     * Returns whether the given task matches this query.
+     *
+     * @param t The task to check.
+     * @return True if the task satisfies every text and filter of the query.
+     */
+    public boolean matches(Task t) {
+        LocalDate dueDate = t instanceof Deadline ? ((Deadline) t).getByDate() : null;
+        if (!matchesAttributes(t.getClass(), t.isDone(), dueDate)) {
+            return false;
+        }
+        if (!texts.isEmpty()) {
+            String description = t.getDescription().toLowerCase();
+            for (String text : texts) {
+                if (!description.contains(text.toLowerCase())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a task with the given attributes satisfies the filters of this query,
+     * ignoring its texts.
+     *
+     * @param taskType The class of the task.
+     * @param isTaskDone Whether the task is done.
+     * @param dueDate The due date if the task is a deadline, otherwise null.
+     * @return True if the type, done and date filters are satisfied.
+     */
+    public boolean matchesAttributes(Class<? extends Task> taskType, boolean isTaskDone, LocalDate dueDate) {
+        if (type != null && !type.isAssignableFrom(taskType)) {
+            return false;
+        }
+        if (isDone != null && isTaskDone != isDone) {
+            return false;
+        }
+        if (hasDateRange()) {
+            if (dueDate == null) {
+                return false;
+            }
+            if (before != null && !dueDate.isBefore(before) || after != null && !dueDate.isAfter(after)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package robert.task;
+
+/**
+ * Supplies tasks by record number from somewhere other than the heap, e.g. a task file on disk.
+ * Used by a paged {@link TaskList} to decode tasks only when they are accessed.
+ */
+public interface TaskSource {
+    /**
+     * Returns the number of task records available.
+     *
+     * @return The number of records.
+     */
+    int size();
+
+    /**
+     * Returns the task stored as the given record. Repeated calls may return different
+     * (but equal) objects, since decoded records are not necessarily kept.
+     * Implementations must be safe to call from several threads.
+     *
+     * @param record The zero-based record number.
+     * @return The decoded task.
+     */
+    Task get(int record);
+}
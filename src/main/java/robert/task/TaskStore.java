@@ -0,0 +1,71 @@
+package robert.task;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Holds the tasks of a {@link TaskList} by slot. Deleted tasks keep their slot until
+ * {@link #removeSlots} drops a batch of them at once.
+ *
+ * <p>Scans that only need the id, type, done flag or due date of a task use the accessors
+ * for those, which a store keeping tasks in columns can answer without creating a Task.
+ */
+interface TaskStore {
+    int size();
+
+    /**
+     * Returns the task at the given index for reading.
+     */
+    Task get(int index);
+
+    /**
+     * Marks the task at the given index as done or not done. The task is replaced by a changed
+     * copy rather than changed in place, so that snapshots of the store are not affected.
+     */
+    void setDone(int index, boolean isDone);
+
+    default int idOf(int index) {
+        return get(index).getId();
+    }
+
+    default boolean isDone(int index) {
+        return get(index).isDone();
+    }
+
+    default Class<? extends Task> typeOf(int index) {
+        return get(index).getClass();
+    }
+
+    /**
+     * Returns the due date of the deadline at the given index, or null if it is not a deadline.
+     */
+    default LocalDate dueDate(int index) {
+        Task t = get(index);
+        return t instanceof Deadline ? ((Deadline) t).getByDate() : null;
+    }
+
+    void add(Task t);
+
+    /**
+     * Drops the tasks in the given slots, shifting the remaining tasks down in a single pass.
+     */
+    void removeSlots(BitSet slots);
+
+    /**
+     * Replaces the contents of the store with the given tasks, in order.
+     */
+    void replaceAll(List<Task> tasks);
+
+    /**
+     * Returns an unmodifiable view of the current contents that is not affected by later changes.
+     */
+    List<Task> snapshot();
+
+    /**
+     * Returns a store with the same contents; later changes to either store do not affect the
+     * other. This takes O(1): every store keeps its contents in structures that copies share,
+     * and a change only copies the parts that it touches.
+     */
+    TaskStore copy();
+}
@@ -14,14 +14,20 @@ public class Todo extends Task {
         super(description);
     }
 
+    @Override
+    Task copy() {
+        return new Todo(description);
+    }
+
     /**
-     * Returns the string representation of the todo. This includes the
+     * Appends the string representation of the todo. This includes the
      * status and description.
      *
-     * @return The string representation of the todo.
+     * @param sb The builder to append to.
      */
     @Override
-    public String toString() {
-        return "[T]" + super.toString();
+    public void appendTo(StringBuilder sb) {
+        sb.append("[T]");
+        super.appendTo(sb);
     }
 }
@@ -0,0 +1,59 @@
+package robert.task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * An inverted index from every three-character substring (trigram) of the lowercased task
+ * descriptions to the ids of the tasks that contain it. A description can only contain a
+ * needle if it contains all of the needle's trigrams, so intersecting a few posting lists
+ * narrows a substring search down to a handful of candidates, which are then checked exactly.
+ * Needles shorter than {@value #GRAM} characters have no trigrams and cannot be looked up.
+ */
+class TrigramIndex extends DescriptionIndex {
+    static final int GRAM = 3;
+
+    private final HashMap<Long, Postings> trigrams = new HashMap<>();
+
+    @Override
+    void index(int id, String text) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            trigrams.computeIfAbsent(key(text, i), k -> new Postings()).add(id);
+        }
+    }
+
+    @Override
+    int[] candidates(String needle) {
+        assert needle.length() >= GRAM : "Needles shorter than a trigram cannot be looked up";
+        ArrayList<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            Postings p = trigrams.get(key(needle, i));
+            if (p == null) {
+                return new int[0];
+            }
+            lists.add(p);
+        }
+        lists.sort(Comparator.comparingInt(Postings::size));
+
+        int[] ids = lists.get(0).toSortedArray();
+        for (int i = 1; i < lists.size() && ids.length > 0; i++) {
+            ids = lists.get(i).retainIn(ids);
+        }
+        return ids;
+    }
+
+    @Override
+    int estimate(String needle) {
+        int smallest = Integer.MAX_VALUE;
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            Postings p = trigrams.get(key(needle, i));
+            smallest = Math.min(smallest, p == null ? 0 : p.size());
+        }
+        return smallest;
+    }
+
+    private static long key(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
@@ -0,0 +1,135 @@
+package robert.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An inverted index from the lowercased words of task descriptions to the ids of the tasks
+ * that contain them. Words are the runs of non-whitespace characters of the lowercased
+ * description, so a keyword without whitespace occurs in a description exactly when it
+ * occurs in one of its words; this lets {@link #idsContaining} answer substring searches
+ * from the vocabulary instead of from every task. The vocabulary is sorted, so the words that
+ * start with a fragment are one range of it; the words that contain it further in are found
+ * through the one- and two-character substrings after their first character. A TaskList only
+ * searches this index for keywords shorter than a trigram; longer ones are looked up in its
+ * {@link TrigramIndex}.
+ *
+ * <p>For fuzzy searches, the vocabulary is also kept in a {@link BkTree}, built on the first
+ * fuzzy search and extended as new words are indexed.
+ */
+class WordIndex extends DescriptionIndex {
+    /** The length of the substrings that words are filed under in {@link #innerGrams}. */
+    private static final int INNER_GRAM = 2;
+
+    private final TreeMap<String, Postings> words = new TreeMap<>();
+    private HashMap<String, ArrayList<String>> innerGrams;
+    private BkTree vocabulary;
+
+    @Override
+    void index(int id, String text) {
+        for (String word : split(text)) {
+            Postings postings = words.get(word);
+            if (postings == null) {
+                postings = new Postings();
+                words.put(word, postings);
+                if (vocabulary != null) {
+                    vocabulary.add(word);
+                }
+                if (innerGrams != null) {
+                    addInnerGrams(word);
+                }
+            }
+            postings.add(id);
+        }
+    }
+
+    /**
+     * Passes the postings of every word within {@code maxDistance} edits of the given lowercase
+     * word, with that distance, to the consumer.
+     */
+    void forEachSimilarWord(String word, int maxDistance, ObjIntConsumer<Postings> consumer) {
+        if (vocabulary == null) {
+            vocabulary = new BkTree();
+            for (String w : words.keySet()) {
+                vocabulary.add(w);
+            }
+        }
+        vocabulary.search(word, maxDistance, (similar, distance) -> consumer.accept(words.get(similar), distance));
+    }
+
+    /**
+     * Splits the given text into its runs of non-whitespace characters.
+     */
+    static ArrayList<String> split(String text) {
+        ArrayList<String> parts = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isBreak = i == text.length() || Character.isWhitespace(text.charAt(i));
+            if (!isBreak && start < 0) {
+                start = i;
+            } else if (isBreak && start >= 0) {
+                parts.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return parts;
+    }
+
+    @Override
+    int[] candidates(String needle) {
+        int[] ids = null;
+        for (String word : split(needle)) {
+            ids = ids == null ? idsContaining(word) : Postings.intersect(ids, idsContaining(word));
+        }
+        return ids == null ? new int[0] : ids;
+    }
+
+    @Override
+    int estimate(String needle) {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the sorted ids of the tasks with a word that contains the given lowercase
+     * fragment. Words that start with it are the range of the sorted vocabulary from the
+     * fragment up to the fragment followed by the largest character. Words that contain it
+     * after their first character are filed under its first {@value #INNER_GRAM} characters,
+     * so only those are checked; no other word and no description is looked at.
+     */
+    int[] idsContaining(String fragment) {
+        ArrayList<Postings> matches = new ArrayList<>(words.subMap(fragment, fragment + Character.MAX_VALUE).values());
+        if (innerGrams == null) {
+            innerGrams = new HashMap<>();
+            for (String word : words.keySet()) {
+                addInnerGrams(word);
+            }
+        }
+        ArrayList<String> inner = innerGrams.get(fragment.substring(0, Math.min(fragment.length(), INNER_GRAM)));
+        if (inner != null) {
+            for (String word : inner) {
+                if (fragment.length() <= INNER_GRAM || word.indexOf(fragment, 1) >= 0) {
+                    matches.add(words.get(word));
+                }
+            }
+        }
+        return Postings.union(matches);
+    }
+
+    /**
+     * Files the word under every substring of up to {@value #INNER_GRAM} characters that starts
+     * after its first character, once per substring.
+     */
+    private void addInnerGrams(String word) {
+        for (int start = 1; start < word.length(); start++) {
+            for (int end = start + 1; end <= Math.min(word.length(), start + INNER_GRAM); end++) {
+                String gram = word.substring(start, end);
+                ArrayList<String> filed = innerGrams.computeIfAbsent(gram, k -> new ArrayList<>());
+                if (filed.isEmpty() || filed.get(filed.size() - 1) != word) {
+                    filed.add(word);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package robert;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the BatchRunner class.
+ */
+public class BatchRunnerTest {
+
+    @TempDir
+    File tempFolder;
+
+    /**
+     * Tests that a script runs up to its "bye", that every response is written, and that the
+     * list is saved at each interval without waiting for the end of the batch.
+     */
+    @Test
+    public void run_scriptWithBye_stopsAndSavesEveryInterval() throws IOException {
+        String path = new File(tempFolder, "tasks.txt").getPath();
+        Robert robert = new Robert(path, true);
+        String script = "todo water plants\ntodo iron shirts\ntodo wind clocks\nlist\nbye\ntodo never run\n";
+        StringWriter out = new StringWriter();
+
+        long count = BatchRunner.run(robert, new BufferedReader(new StringReader(script)), out, 2);
+
+        assertEquals(5, count);
+        String output = out.toString();
+        assertTrue(output.contains("3.[T][ ] wind clocks"), "Expected the list response in the output");
+        assertTrue(output.contains("Farewell, sir."), "Expected the bye response in the output");
+        Robert reader = new Robert(path);
+        String saved = reader.getResponse("list");
+        reader.close();
+        assertTrue(saved.contains("wind clocks"), "The third task should have been saved at the fourth command");
+        assertFalse(saved.contains("never run"), "Commands after bye should not run");
+        robert.close();
+    }
+}
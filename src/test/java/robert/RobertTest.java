@@ -1,20 +1,58 @@
 package robert;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import robert.command.Command;
+import robert.command.CommandType;
+import robert.command.ListingCommand;
+import robert.parser.ParsedCommand;
+import robert.storage.Storage;
+import robert.task.TaskList;
 
 /**
  * Tests the main Robert chatbot logic (excluding GUI).
  */
 public class RobertTest {
 
+    @TempDir
+    File tempFolder;
+
     private Robert robert;
 
     @BeforeEach
-    public void setUp() {
-        robert = new Robert("data/testTasks.txt");
+    public void setUp() throws IOException {
+        File tasks = new File(tempFolder, "testTasks.txt");
+        Files.copy(Paths.get("data/testTasks.txt"), tasks.toPath());
+        robert = new Robert(tasks.getPath());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        robert.close();
+    }
+
+    /**
+     * Returns the id of the only task whose description contains the given phrase.
+     */
+    private int idOf(String phrase) {
+        Matcher m = Pattern.compile("\\(#(\\d+)\\)").matcher(robert.getResponse("find \"" + phrase + "\""));
+        assertTrue(m.find(), "Expected a task containing " + phrase);
+        return Integer.parseInt(m.group(1));
     }
 
     @Test
@@ -49,6 +87,107 @@ public class RobertTest {
                 "Should detect invalid date (Feb 30) and show an error.");
     }
 
+    @Test
+    public void getResponse_dueBetween_listsDeadlinesInRange() {
+        robert.getResponse("deadline file taxes /by 2031-07-15");
+        String response = robert.getResponse("due between 2031-07-15 and 2031-07-16");
+        assertTrue(response.contains("file taxes"), "Range should include deadlines due on its first day");
+        response = robert.getResponse("due before 2031-07-15");
+        assertTrue(!response.contains("file taxes"), "'due before' should exclude deadlines due that day");
+        response = robert.getResponse("due between 2031-07-16 and 2031-07-15");
+        assertTrue(response.contains("the second date must not come before the first"),
+                "Should reject a range that ends before it starts");
+    }
+
+    @Test
+    public void getResponse_undoThenRedo_restoresTask() {
+        robert.getResponse("todo polish the silver");
+        String response = robert.getResponse("undo");
+        assertTrue(response.contains("I have undone your last change."), "Expected undo confirmation");
+        assertTrue(!robert.getResponse("list").contains("polish the silver"), "Undo should remove the new task");
+        robert.getResponse("redo");
+        assertTrue(robert.getResponse("list").contains("polish the silver"), "Redo should bring the task back");
+        response = robert.getResponse("redo");
+        assertTrue(response.contains("nothing to redo"), "Should refuse to redo twice");
+    }
+
+    @Test
+    public void getResponse_deleteRangeAndDone_removesAllAtOnce() {
+        for (int i = 0; i < 5; i++) {
+            robert.getResponse("todo batch chore " + i);
+        }
+        String response = robert.getResponse("mark #" + idOf("batch chore 0") + ",#" + idOf("batch chore 2")
+                + ",#" + idOf("batch chore 3"));
+        assertTrue(response.contains("marked these 3 tasks as done"), "Expected one reply for the whole range");
+        response = robert.getResponse("delete done");
+        assertTrue(response.contains("removed these"), "Expected the done tasks to be removed together");
+        String list = robert.getResponse("list");
+        assertTrue(list.contains("batch chore 1") && list.contains("batch chore 4") && !list.contains("chore 3"),
+                "Only the tasks that were not done should remain");
+        robert.getResponse("undo");
+        assertTrue(robert.getResponse("list").contains("batch chore 3"), "One undo should restore the batch");
+    }
+
+    @Test
+    public void register_customCommand_runsStagesInOrder() {
+        StringBuilder stages = new StringBuilder();
+        robert.register(CommandType.FUZZY, () -> new Command() {
+            @Override
+            public void parse(ParsedCommand input) {
+                stages.append("parse:").append(input.getArgument()).append(' ');
+            }
+
+            @Override
+            public void execute(TaskList tasks) {
+                stages.append("execute ");
+            }
+
+            @Override
+            public void persist(Storage storage, TaskList tasks) {
+                stages.append("persist ");
+            }
+
+            @Override
+            public String render() {
+                stages.append("render");
+                return "rendered";
+            }
+        });
+        assertTrue(robert.execute("fuzzy silver"), "A quiet run should succeed");
+        assertEquals("parse:silver execute persist ", stages.toString());
+        assertEquals("rendered", robert.getResponse("FUZZY  silver "));
+        assertFalse(robert.execute("mark 0"), "A quiet run should still report failures");
+    }
+
+    /**
+     * Long lists are shown a page at a time, keeping each task's number, and "list all" is
+     * streamed by respond exactly as getResponse would return it.
+     */
+    @Test
+    public void getResponse_listLongerThanAPage_showsOnePageAtATime() throws IOException {
+        Robert paged = new Robert(new File(tempFolder, "tasks.txt").getPath(), true);
+        int last = ListingCommand.PAGE_SIZE + 5;
+        for (int i = 1; i <= last; i++) {
+            paged.execute("todo chore " + i);
+        }
+        String first = paged.getResponse("list");
+        assertTrue(first.contains(" 1.[T][ ] chore 1 ") && !first.contains("chore " + (ListingCommand.PAGE_SIZE + 1)),
+                "The first page should stop after " + ListingCommand.PAGE_SIZE + " tasks");
+        assertTrue(first.endsWith("Say \"list 2\" for the next page, or \"list all\" for every task."));
+        String second = paged.getResponse("list 2");
+        assertTrue(second.contains(" " + last + ".[T][ ] chore " + last),
+                "The second page should keep the numbers of the whole list");
+        assertTrue(second.endsWith("Page 2 of 2, sir."));
+        assertTrue(paged.getResponse("list 3").contains("There are only 2 pages."));
+        assertTrue(paged.getResponse("find chore 5 page:x").contains("e.g. find chore 5 page:2"));
+
+        StringWriter streamed = new StringWriter();
+        assertTrue(paged.respond("list all", streamed));
+        assertEquals(paged.getResponse("list all"), streamed.toString());
+        assertEquals(ListingCommand.PAGE_SIZE + 6, streamed.toString().split("\n").length);
+        paged.close();
+    }
+
     @Test
     public void getResponse_unknownCommand_showsError() {
         String response = robert.getResponse("gibberish");
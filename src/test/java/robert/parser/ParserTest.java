@@ -39,6 +39,24 @@ public class ParserTest {
         assertEquals(CommandType.BYE, result);
     }
 
+    /**
+     * Tests if parse("fuzzy retrun book") returns CommandType.FUZZY.
+     */
+    @Test
+    public void parse_fuzzyCommand_returnFuzzy() {
+        CommandType result = Parser.parse("fuzzy retrun book");
+        assertEquals(CommandType.FUZZY, result);
+    }
+
+    /**
+     * Tests if parse("due before 2025-02-01") returns CommandType.DUE.
+     */
+    @Test
+    public void parse_dueCommand_returnDue() {
+        CommandType result = Parser.parse("due before 2025-02-01");
+        assertEquals(CommandType.DUE, result);
+    }
+
     /**
      * Tests that parse does not return null even for random strings.
      */
@@ -47,4 +65,28 @@ public class ParserTest {
         CommandType result = Parser.parse("randomstuff");
         assertNotNull(result);
     }
+
+    /**
+     * Tests that one ParsedCommand can be reused, and that command words match in any case with
+     * the argument trimmed in place.
+     */
+    @Test
+    public void parse_reusedParsedCommand_typeAndArgumentOfEachLine() {
+        ParsedCommand command = new ParsedCommand();
+        Parser.parse("  DeadLine\treturn book /by 2025-01-01  ", command);
+        assertEquals(CommandType.DEADLINE, command.getType());
+        assertEquals("return book /by 2025-01-01", command.getArgument());
+        int by = command.indexOf("/by", command.getArgumentStart());
+        assertEquals("return book", command.trimmed(command.getArgumentStart(), by));
+
+        Parser.parse("list", command);
+        assertEquals(CommandType.LIST, command.getType());
+        assertEquals("", command.getArgument());
+        assertEquals(-1, command.indexOf("/by", command.getArgumentStart()));
+
+        Parser.parse("listing", command);
+        assertEquals(CommandType.UNKNOWN, command.getType());
+        Parser.parse("   ", command);
+        assertEquals(CommandType.UNKNOWN, command.getType());
+    }
 }
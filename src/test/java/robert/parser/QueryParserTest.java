@@ -0,0 +1,54 @@
+package robert.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import robert.RobertException;
+import robert.task.Deadline;
+import robert.task.TaskQuery;
+
+/**
+ * Tests the QueryParser class.
+ */
+public class QueryParserTest {
+
+    /**
+     * Tests that a query without filters or quotes is searched for as a whole.
+     */
+    @Test
+    public void parse_plainWords_singleText() throws RobertException {
+        TaskQuery query = QueryParser.parse(" read book ");
+        assertEquals(List.of("read book"), query.getTexts());
+        assertNull(query.getType());
+    }
+
+    /**
+     * Tests that filters, phrases and words are all taken from a compound query.
+     */
+    @Test
+    public void parse_compoundQuery_filtersAndTexts() throws RobertException {
+        TaskQuery query = QueryParser.parse("type:deadline done:no before:2025-03-01 \"book club\" rent");
+        assertEquals(List.of("book club", "rent"), query.getTexts());
+        assertEquals(Deadline.class, query.getType());
+        assertEquals(false, query.getDone());
+        assertEquals(LocalDate.of(2025, 3, 1), query.getBefore());
+        assertNull(query.getAfter());
+    }
+
+    /**
+     * Tests that unclosed quotes and invalid filter values are rejected.
+     */
+    @Test
+    public void parse_invalidQuery_throwsRobertException() {
+        assertThrows(RobertException.class, () -> QueryParser.parse("\"book"));
+        assertThrows(RobertException.class, () -> QueryParser.parse("type:chore"));
+        assertThrows(RobertException.class, () -> QueryParser.parse("done:maybe"));
+        assertThrows(RobertException.class, () -> QueryParser.parse("after:tomorrow"));
+    }
+}
@@ -1,17 +1,24 @@
 package robert.storage;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import robert.task.Deadline;
+import robert.task.Event;
 import robert.task.Task;
+import robert.task.TaskList;
 import robert.task.Todo;
 
 /**
@@ -58,4 +65,497 @@ public class StorageTest {
         ArrayList<Task> tasks = storage.load();
         assertEquals(0, tasks.size());
     }
+
+    @Test
+    public void record_journaledMutations_replayedOnLoad() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        Storage storage = new Storage(testFile.getPath(), true);
+
+        ArrayList<Task> snapshot = new ArrayList<>();
+        snapshot.add(new Todo("read book"));
+        storage.save(snapshot);
+
+        TaskList tasks = new TaskList(storage.load());
+        Deadline d = new Deadline("return book", "2025-01-01");
+        storage.record(JournalEntry.add(tasks.add(d)), tasks);
+        tasks.mark(1);
+        storage.record(JournalEntry.mark(1), tasks);
+        tasks.sortDeadlines();
+        storage.record(JournalEntry.sort(), tasks);
+        tasks.remove(1);
+        storage.record(JournalEntry.delete(1), tasks);
+
+        assertEquals("#|next-id|2|escaped" + System.lineSeparator() + "T|0|read book|1" + System.lineSeparator(),
+                Files.readString(testFile.toPath()));
+        ArrayList<Task> loadedTasks = storage.load();
+        assertEquals(1, loadedTasks.size());
+        assertEquals("[D][X] return book (by: Jan 1 2025)", loadedTasks.get(0).toString());
+    }
+
+    @Test
+    public void record_undoAndRedo_journaledAndReplayedOnLoad() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        Storage storage = new Storage(testFile.getPath(), true);
+        ArrayList<Task> snapshot = new ArrayList<>();
+        snapshot.add(new Todo("read book"));
+        storage.save(snapshot);
+        String saved = Files.readString(testFile.toPath());
+
+        TaskList tasks = storage.loadTaskList();
+        tasks.checkpoint();
+        Todo todo = new Todo("return book");
+        storage.record(JournalEntry.add(tasks.add(todo)), tasks);
+        tasks.checkpoint();
+        tasks.mark(0);
+        storage.record(JournalEntry.mark(0), tasks);
+        tasks.checkpoint();
+        tasks.undo();
+        storage.record(JournalEntry.undo(), tasks);
+        tasks.checkpoint();
+        tasks.undo();
+        storage.record(JournalEntry.undo(), tasks);
+        tasks.checkpoint();
+        tasks.redo();
+        storage.record(JournalEntry.redo(), tasks);
+        tasks.checkpoint();
+        storage.flush();
+
+        assertEquals(saved, Files.readString(testFile.toPath()));
+        TaskList loaded = new Storage(testFile.getPath(), true).loadTaskList();
+        assertEquals(2, loaded.size());
+        assertEquals("[T][ ] read book", loaded.get(0).toString());
+        assertEquals("[T][ ] return book", loaded.get(1).toString());
+    }
+
+    @Test
+    public void record_undoPastJournalStart_savesWholeList() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        Storage storage = new Storage(testFile.getPath(), true);
+        TaskList tasks = storage.loadTaskList();
+        tasks.checkpoint();
+        Todo todo = new Todo("read book");
+        tasks.add(todo);
+        storage.save(tasks);
+        tasks.checkpoint();
+
+        tasks.undo();
+        storage.record(JournalEntry.undo(), tasks);
+        assertEquals("#|next-id|2|escaped" + System.lineSeparator(), Files.readString(testFile.toPath()));
+        tasks.checkpoint();
+        tasks.redo();
+        storage.record(JournalEntry.redo(), tasks);
+        tasks.checkpoint();
+        storage.close();
+
+        assertEquals(1, new Storage(testFile.getPath(), true).load().size());
+    }
+
+    @Test
+    public void record_batchMutations_oneLineEachAndReplayedOnLoad() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        Storage storage = new Storage(testFile.getPath(), true);
+        ArrayList<Task> snapshot = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            snapshot.add(new Todo("task " + i));
+        }
+        storage.save(snapshot);
+
+        TaskList tasks = new TaskList(storage.load());
+        int[] marked = {1, 2, 3, 7};
+        tasks.setDoneAll(marked, true);
+        storage.record(JournalEntry.markAll(marked), tasks);
+        int[] deleted = {0, 2, 3, 4, 9};
+        tasks.removeAll(deleted);
+        storage.record(JournalEntry.deleteAll(deleted), tasks);
+        storage.flush();
+
+        List<String> lines = Files.readAllLines(new File(storage.getJournalPath()).toPath());
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).endsWith(" MARK|1-3,7") && lines.get(1).endsWith(" DELETE|0,2-4,9"), lines.toString());
+        List<String> loaded = new ArrayList<>();
+        for (Task t : storage.load()) {
+            loaded.add(t.toString());
+        }
+        assertEquals(List.of("[T][X] task 1", "[T][ ] task 5", "[T][ ] task 6", "[T][X] task 7", "[T][ ] task 8"),
+                loaded);
+    }
+
+    @Test
+    public void load_tornJournalLine_ignored() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        Files.writeString(testFile.toPath(), "T|0|read book\n");
+        Storage storage = new Storage(testFile.getPath(), true);
+        Files.writeString(new File(storage.getJournalPath()).toPath(), "MARK|0\nADD|D|0|ret");
+
+        ArrayList<Task> tasks = storage.load();
+        assertEquals(1, tasks.size());
+        assertEquals("[T][X] read book", tasks.get(0).toString());
+    }
+
+    /**
+     * A torn last line that still parses ("DELETE|1" left of "DELETE|12") and a line that does not
+     * match its checksum are both skipped, and the torn line is cut off the journal.
+     */
+    @Test
+    public void load_tornOrCorruptChecksummedLines_skippedAndTornTailCut() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        StringBuilder snapshot = new StringBuilder();
+        for (int i = 0; i < 13; i++) {
+            snapshot.append("T|0|task ").append(i).append('\n');
+        }
+        Files.writeString(testFile.toPath(), snapshot.toString());
+        Storage storage = new Storage(testFile.getPath(), true);
+        String mark = JournalEntry.mark(0).toLine() + "\n";
+        String corrupt = JournalEntry.delete(12).toLine().replace("DELETE|12", "DELETE|11") + "\n";
+        String delete = JournalEntry.delete(12).toLine();
+        Path journal = new File(storage.getJournalPath()).toPath();
+        Files.writeString(journal, mark + corrupt + delete.substring(0, delete.length() - 1));
+
+        ArrayList<Task> tasks = storage.load();
+        assertEquals(13, tasks.size());
+        assertEquals("[T][X] task 0", tasks.get(0).toString());
+        assertEquals(mark + corrupt, Files.readString(journal));
+    }
+
+    @Test
+    public void record_journalPastThreshold_compactsInBackground() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        Storage storage = new Storage(testFile.getPath(), true);
+        storage.setCompactionThreshold(3, Long.MAX_VALUE);
+
+        TaskList tasks = new TaskList(storage.load());
+        for (int i = 0; i < 4; i++) {
+            Todo t = new Todo("task" + i);
+            storage.record(JournalEntry.add(tasks.add(t)), tasks);
+        }
+        storage.awaitCompaction();
+
+        assertEquals(4, Files.readAllLines(testFile.toPath()).size());
+        List<String> journal = Files.readAllLines(new File(storage.getJournalPath()).toPath());
+        assertEquals(1, journal.size());
+        assertTrue(journal.get(0).endsWith(" ADD|T|0|task3|4"), journal.toString());
+        assertEquals(4, new Storage(testFile.getPath(), true).load().size());
+    }
+
+    @Test
+    public void load_interruptedCompaction_recoversWithoutLosingEntries() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        Storage storage = new Storage(testFile.getPath(), true);
+        Files.writeString(testFile.toPath(), "T|0|read book\n");
+        Files.writeString(new File(testFile.getPath() + ".journal.old").toPath(), "ADD|T|0|return book\n");
+        Files.writeString(new File(testFile.getPath() + ".tmp").toPath(), "T|0|read b");
+        Files.writeString(new File(storage.getJournalPath()).toPath(), "MARK|1\n");
+
+        ArrayList<Task> tasks = storage.load();
+        assertEquals(2, tasks.size());
+        assertEquals("[T][X] return book", tasks.get(1).toString());
+        assertFalse(new File(testFile.getPath() + ".journal.old").exists());
+        assertEquals(2, new Storage(testFile.getPath(), true).load().size());
+    }
+
+    @Test
+    public void record_writeBehind_groupsEntriesIntoBatches() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        Storage storage = new Storage(testFile.getPath(), true);
+        storage.setWriteBehind(3, 60_000);
+        Path journal = new File(storage.getJournalPath()).toPath();
+
+        TaskList tasks = new TaskList(storage.load());
+        for (int i = 0; i < 4; i++) {
+            Todo t = new Todo("task" + i);
+            storage.record(JournalEntry.add(tasks.add(t)), tasks);
+        }
+        assertEquals(3, Files.readAllLines(journal).size());
+
+        storage.flush();
+        assertEquals(4, Files.readAllLines(journal).size());
+        storage.close();
+    }
+
+    @Test
+    public void saveAndLoad_binaryFormat_roundTripsAnyDescription() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.bin");
+        Storage storage = new Storage(testFile.getPath(), true);
+        storage.setFormat(StorageFormat.BINARY);
+
+        ArrayList<Task> tasksToSave = new ArrayList<>();
+        tasksToSave.add(new Todo("pipes | and 100% café"));
+        tasksToSave.add(new Deadline("Submit assignment", "2025-01-01").withDone(true));
+        storage.save(tasksToSave);
+
+        TaskList tasks = new TaskList(storage.load());
+        Event e = new Event("line\nbreak|event", "Mon", "Tue");
+        storage.record(JournalEntry.add(tasks.add(e)), tasks);
+
+        ArrayList<Task> loadedTasks = new Storage(testFile.getPath(), true).load();
+        assertEquals(3, loadedTasks.size());
+        assertEquals("[T][ ] pipes | and 100% café", loadedTasks.get(0).toString());
+        assertEquals("[D][X] Submit assignment (by: Jan 1 2025)", loadedTasks.get(1).toString());
+        assertEquals("[E][ ] line\nbreak|event (from: Mon to: Tue)", loadedTasks.get(2).toString());
+    }
+
+    @Test
+    public void saveAndLoad_taskIds_keptInBothFormats() throws IOException {
+        for (StorageFormat format : StorageFormat.values()) {
+            File testFile = new File(tempFolder, "ids-" + format + ".txt");
+            Storage storage = new Storage(testFile.getPath(), true);
+            storage.setFormat(format);
+
+            TaskList tasks = new TaskList();
+            for (int i = 0; i < 3; i++) {
+                tasks.add(new Todo("task" + i));
+            }
+            tasks.remove(2);
+            storage.save(tasks);
+            Deadline d = new Deadline("return book", "2025-01-01");
+            storage.record(JournalEntry.add(tasks.add(d)), tasks);
+
+            TaskList loaded = new Storage(testFile.getPath(), true).loadTaskList();
+            assertEquals(3, loaded.size());
+            assertEquals("task1", loaded.findById(2).getDescription());
+            assertEquals("return book", loaded.findById(4).getDescription());
+            assertEquals(5, loaded.getNextId());
+        }
+    }
+
+    @Test
+    public void load_fileLargerThanParallelThreshold_keepsEveryTaskInOrder() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        StringBuilder sb = new StringBuilder();
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; sb.length() <= 2 * TaskFileParser.PARALLEL_THRESHOLD; i++) {
+            switch (i % 3) {
+            case 0:
+                sb.append("T|").append(i % 2).append("|read book ").append(i);
+                expected.add(new Todo("read book " + i).withDone(i % 2 == 1));
+                break;
+            case 1:
+                String date = "2025-" + String.format("%02d-%02d", i % 12 + 1, i % 28 + 1);
+                sb.append("D|0|return book ").append(i).append('|').append(date);
+                expected.add(new Deadline("return book " + i, date));
+                break;
+            default:
+                sb.append("E|1|project meeting ").append(i).append("|Monday 2pm|4pm");
+                expected.add(new Event("project meeting " + i, "Monday 2pm", "4pm").withDone(true));
+                break;
+            }
+            sb.append('\n');
+        }
+        Files.writeString(testFile.toPath(), sb.toString());
+
+        ArrayList<Task> loaded = new Storage(testFile.getPath()).load();
+        assertEquals(expected.size(), loaded.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), loaded.get(i).toString());
+            assertEquals(i + 1, loaded.get(i).getId());
+        }
+    }
+
+    @Test
+    public void load_legacyFileWithNumericExtraField_fieldNotReadAsId() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        Files.writeString(testFile.toPath(), "T|0|call|911\nT|0|read book|1\n");
+
+        TaskList tasks = new Storage(testFile.getPath()).loadTaskList();
+        assertEquals(2, tasks.size());
+        assertEquals(1, tasks.get(0).getId());
+        assertEquals(2, tasks.get(1).getId());
+        assertEquals(3, tasks.getNextId());
+    }
+
+    @Test
+    public void loadTaskList_pagedFileWithMissingIds_assignsIdsAboveExplicitOnes() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("T|0|task").append(i);
+            if (i != 3) {
+                sb.append('|').append(i + 7);
+            }
+            sb.append('\n');
+        }
+        Files.writeString(testFile.toPath(), "#|next-id|2000\n" + sb);
+        Storage storage = new Storage(testFile.getPath(), true);
+        storage.setPaging(0, 2);
+
+        TaskList tasks = storage.loadTaskList();
+        assertTrue(tasks.isPaged());
+        assertEquals(9, tasks.get(2).getId());
+        assertEquals(2003, tasks.get(3).getId());
+        assertEquals(11, tasks.get(4).getId());
+        assertEquals(2004, tasks.getNextId());
+        storage.close();
+
+        Files.writeString(testFile.toPath(), sb.toString());
+        Storage legacy = new Storage(testFile.getPath(), true);
+        legacy.setPaging(0, 2);
+        TaskList legacyTasks = legacy.loadTaskList();
+        assertEquals(3, legacyTasks.get(2).getId());
+        assertEquals(4, legacyTasks.get(3).getId());
+        assertEquals(1001, legacyTasks.getNextId());
+        legacy.close();
+    }
+
+    @Test
+    public void load_fileWithoutIds_assignsIdsInOrder() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        Files.writeString(testFile.toPath(), "T|0|read book\nD|0|return book|2025-01-01\n");
+        Storage storage = new Storage(testFile.getPath());
+
+        TaskList tasks = storage.loadTaskList();
+        assertEquals(2, tasks.findById(2).getId());
+        assertEquals("read book", tasks.findById(1).getDescription());
+        assertEquals(3, tasks.getNextId());
+    }
+
+    @Test
+    public void convert_textToBinaryAndBack_preservesTasks() throws IOException {
+        File text = new File(tempFolder, "tasks.txt");
+        File binary = new File(tempFolder, "tasks.bin");
+        File textAgain = new File(tempFolder, "tasks2.txt");
+        String contents = "#|next-id|12|escaped" + System.lineSeparator()
+                + "T|1|read book|3" + System.lineSeparator()
+                + "D|0|return book|2025-01-01|5" + System.lineSeparator()
+                + "E|0|project meeting|Monday 2pm|4pm|8" + System.lineSeparator();
+        Files.writeString(text.toPath(), contents);
+
+        assertEquals(3, StorageConverter.convert(text.getPath(), binary.getPath(), StorageFormat.BINARY));
+        assertEquals(3, StorageConverter.convert(binary.getPath(), textAgain.getPath(), StorageFormat.TEXT));
+        assertEquals(contents, Files.readString(textAgain.toPath()));
+    }
+
+    @Test
+    public void convert_binaryWithPipesAndLineBreaksToText_preservesTasks() throws IOException {
+        File binary = new File(tempFolder, "tasks.bin");
+        File text = new File(tempFolder, "tasks.txt");
+        Storage storage = new Storage(binary.getPath());
+        storage.setFormat(StorageFormat.BINARY);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("pipes | and|12"));
+        tasks.add(new Event("line\nbreak 100%7C", "Mon|day", "Tue\r\n"));
+        storage.save(tasks);
+
+        assertEquals(2, StorageConverter.convert(binary.getPath(), text.getPath(), StorageFormat.TEXT));
+        ArrayList<Task> loaded = new Storage(text.getPath()).load();
+        assertEquals(2, loaded.size());
+        assertEquals("[T][ ] pipes | and|12", loaded.get(0).toString());
+        assertEquals(1, loaded.get(0).getId());
+        assertEquals("[E][ ] line\nbreak 100%7C (from: Mon|day to: Tue\r\n)", loaded.get(1).toString());
+    }
+
+    @Test
+    public void save_afterLoadingBinaryFile_staysBinary() throws IOException {
+        File testFile = new File(tempFolder, "tasks.txt");
+        Storage binary = new Storage(testFile.getPath());
+        binary.setFormat(StorageFormat.BINARY);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("pay A|B invoice"));
+        binary.save(tasks);
+
+        Storage storage = new Storage(testFile.getPath(), true);
+        TaskList list = storage.loadTaskList();
+        list.add(new Todo("call bank"));
+        storage.save(list);
+        storage.close();
+
+        assertTrue(BinaryTaskFile.isBinary(testFile.toPath()));
+        TaskList loaded = new Storage(testFile.getPath()).loadTaskList();
+        assertEquals("pay A|B invoice", loaded.findById(1).getDescription());
+        assertEquals("call bank", loaded.findById(2).getDescription());
+    }
+
+    @Test
+    public void load_legacyTextWithPercent_keepsPercentLiteral() throws IOException {
+        File testFile = new File(tempFolder, "tasks.txt");
+        Files.writeString(testFile.toPath(), "#|next-id|3\nT|0|save 10%25 more|1\nT|0|100%7C done|2\n");
+
+        ArrayList<Task> loaded = new Storage(testFile.getPath()).load();
+        assertEquals("save 10%25 more", loaded.get(0).getDescription());
+        assertEquals("100%7C done", loaded.get(1).getDescription());
+    }
+
+    @Test
+    public void loadTaskList_columnar_keepsTasksAndIds() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        Files.writeString(testFile.toPath(), "#|next-id|3|escaped\nT|1|read book|1\nD|0|return book|2025-01-01|2\n");
+        assertFalse(new Storage(testFile.getPath()).loadTaskList().isColumnar());
+
+        Storage storage = new Storage(testFile.getPath(), true);
+        storage.setColumnar(true);
+        TaskList tasks = storage.loadTaskList();
+        assertTrue(tasks.isColumnar());
+        assertEquals("[T][X] read book", tasks.get(0).toString());
+        storage.record(JournalEntry.add(tasks.add(new Event("project meeting", "Mon", "Tue"))), tasks);
+        storage.close();
+
+        Storage reopened = new Storage(testFile.getPath(), true);
+        reopened.setColumnar(true);
+        TaskList reloaded = reopened.loadTaskList();
+        assertTrue(reloaded.isColumnar());
+        assertEquals("[E][ ] project meeting (from: Mon to: Tue)", reloaded.findById(3).toString());
+        assertEquals(4, reloaded.getNextId());
+        reopened.close();
+    }
+
+    @Test
+    public void loadTaskList_abovePagingThreshold_decodesLazily() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i % 2 == 0 ? "T|0|task" + i : "D|1|task" + i + "|2025-01-01").append("\n");
+        }
+        Files.writeString(testFile.toPath(), sb.toString());
+        Storage storage = new Storage(testFile.getPath(), true);
+        storage.setPaging(0, 2);
+
+        TaskList tasks = storage.loadTaskList();
+        assertTrue(tasks.isPaged());
+        assertEquals(1000, tasks.size());
+        assertEquals("[D][X] task999 (by: Jan 1 2025)", tasks.get(999).toString());
+        tasks.unmark(999);
+        storage.record(JournalEntry.unmark(999), tasks);
+        for (int i = 0; i < 999; i++) {
+            tasks.get(i);
+        }
+        assertEquals("[D][ ] task999 (by: Jan 1 2025)", tasks.get(999).toString());
+        assertTrue(new File(testFile.getPath() + ".idx").exists());
+        storage.close();
+
+        Storage reopened = new Storage(testFile.getPath(), true);
+        reopened.setPaging(0, 2);
+        TaskList reloaded = reopened.loadTaskList();
+        assertEquals("[T][ ] task500", reloaded.get(500).toString());
+        assertEquals("[D][ ] task999 (by: Jan 1 2025)", reloaded.get(999).toString());
+        reopened.close();
+    }
+
+    /**
+     * Saving a paged list moves the file it pages from aside, so the task file has no open
+     * channel when it is replaced, and the list keeps reading its tasks.
+     */
+    @Test
+    public void save_pagedList_movesPagedFileAsideAndKeepsReading() throws IOException {
+        File testFile = new File(tempFolder, "testTasks.txt");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("T|0|task").append(i).append("\n");
+        }
+        Files.writeString(testFile.toPath(), sb.toString());
+        Storage storage = new Storage(testFile.getPath(), true);
+        storage.setPaging(0, 1);
+
+        TaskList tasks = storage.loadTaskList();
+        tasks.remove(0);
+        storage.save(tasks);
+        File aside = new File(testFile.getPath() + ".paged");
+        assertTrue(aside.exists());
+        assertEquals(1000, Files.readAllLines(aside.toPath()).size());
+        assertEquals(1000, Files.readAllLines(testFile.toPath()).size());
+        assertEquals("[T][ ] task1", tasks.get(0).toString());
+        assertEquals("[T][ ] task999", tasks.get(998).toString());
+        storage.save(tasks);
+        storage.close();
+        assertFalse(aside.exists());
+        assertEquals(999, new Storage(testFile.getPath(), true).load().size());
+    }
 }
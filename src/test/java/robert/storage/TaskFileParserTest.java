@@ -0,0 +1,132 @@
+package robert.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import robert.task.Task;
+
+/**
+ * Tests the TaskFileParser class.
+ */
+public class TaskFileParserTest {
+
+    private static final String[] LINES = {
+        "T|0|read book",
+        "T | 1 | padded fields  ",
+        "D|1|return book|2025-01-01",
+        "D|0|return book| 2024-02-29 ",
+        "E|0|project meeting|Monday 2pm|4pm",
+        "E|1|outing||1pm",
+        "T|0|",
+        "D|0|no date|",
+        "E|0|no end|Monday",
+        "X|0|unknown type",
+        "TT|0|long type",
+        "",
+        "T|0|café ☕",
+        "T|0|extra|fields|are|ignored|here",
+    };
+    /** The task read from each of {@link #LINES}, or null if the line is skipped. */
+    private static final String[] EXPECTED = {
+        "[T][ ] read book",
+        "[T][X] padded fields",
+        "[D][X] return book (by: Jan 1 2025)",
+        "[D][ ] return book (by: Feb 29 2024)",
+        "[E][ ] project meeting (from: Monday 2pm to: 4pm)",
+        "[E][X] outing (from:  to: 1pm)",
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        "[T][ ] café ☕",
+        "[T][ ] extra",
+    };
+
+    @TempDir
+    File tempFolder;
+
+    @Test
+    public void read_variousLines_skipsInvalidLines() throws IOException {
+        File testFile = new File(tempFolder, "tasks.txt");
+        Files.writeString(testFile.toPath(), String.join("\r\n", LINES));
+
+        ArrayList<String> expected = new ArrayList<>();
+        for (String task : EXPECTED) {
+            if (task != null) {
+                expected.add(task);
+            }
+        }
+        ArrayList<String> actual = new ArrayList<>();
+        for (Task t : TaskFileParser.read(testFile.toPath())) {
+            actual.add(t.toString());
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void read_invalidDate_throws() throws IOException {
+        File testFile = new File(tempFolder, "tasks.txt");
+        Files.writeString(testFile.toPath(), "D|0|return book|2025-02-30\n");
+
+        assertThrows(DateTimeParseException.class, () -> TaskFileParser.read(testFile.toPath()));
+    }
+
+    @Test
+    public void readWindows_smallWindows_wholeLinesInFileOrder() throws IOException {
+        File testFile = new File(tempFolder, "tasks.txt");
+        Files.writeString(testFile.toPath(),
+                String.join("\n", LINES) + "\nT|0|a line much longer than one window\nT|0|last");
+        byte[] contents = Files.readAllBytes(testFile.toPath());
+
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        try (FileChannel channel = FileChannel.open(testFile.toPath(), StandardOpenOption.READ)) {
+            TaskFileParser.readWindows(channel, 16, (buf, position, end) -> {
+                assertEquals(read.size(), position);
+                byte[] window = new byte[end];
+                buf.get(0, window);
+                read.write(window);
+                assertTrue(window[end - 1] == '\n' || read.size() == contents.length, "Windows end with a line");
+            });
+        }
+        assertArrayEquals(contents, read.toByteArray());
+    }
+
+    @Test
+    public void read_fileAboveParallelThreshold_keepsFileOrder() throws IOException {
+        File testFile = new File(tempFolder, "tasks.txt");
+        StringBuilder sb = new StringBuilder();
+        int lines = 0;
+        while (sb.length() <= 2 * TaskFileParser.PARALLEL_THRESHOLD) {
+            sb.append(LINES[lines % LINES.length]).append('\n');
+            lines++;
+        }
+        Files.writeString(testFile.toPath(), sb.toString());
+
+        ArrayList<Task> tasks = TaskFileParser.read(testFile.toPath());
+        int expectedIndex = 0;
+        for (int i = 0; i < lines; i++) {
+            String expected = EXPECTED[i % EXPECTED.length];
+            if (expected != null) {
+                assertEquals(expected, tasks.get(expectedIndex).toString());
+                expectedIndex++;
+            }
+        }
+        assertEquals(expectedIndex, tasks.size());
+    }
+}
@@ -23,4 +23,14 @@ public class DeadlineTest {
         String expected = "[D][ ] Submit report (by: Dec 31 2024)";
         assertEquals(expected, d.toString());
     }
+
+    @Test
+    public void appendTo_afterOtherText_appendsSameAsToString() {
+        Task d = new Deadline("Submit report", "2024-12-31").withDone(true);
+        StringBuilder sb = new StringBuilder("1.");
+        d.appendTo(sb);
+        d.appendTo(sb);
+        assertEquals("1." + d + d, sb.toString());
+        assertEquals("[D][X] Submit report (by: Dec 31 2024)", d.toString());
+    }
 }
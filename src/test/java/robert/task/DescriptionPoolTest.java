@@ -0,0 +1,43 @@
+package robert.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the DescriptionPool class.
+ */
+public class DescriptionPoolTest {
+
+    /**
+     * Tests that equal descriptions are shared and counted as hits, with the bytes saved.
+     */
+    @Test
+    public void intern_equalDescriptions_sharedAndCounted() {
+        DescriptionPool pool = new DescriptionPool(16);
+        String first = new String("read book");
+        String second = new String("read book");
+
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertSame(first, pool.intern(first));
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+        assertEquals(0.5, pool.getHitRate());
+        assertEquals(40 + "read book".length(), pool.getBytesSaved());
+    }
+
+    /**
+     * Tests that a pool with a single slot still returns equal strings when descriptions
+     * keep replacing each other.
+     */
+    @Test
+    public void intern_collidingDescriptions_returnEqualStrings() {
+        DescriptionPool pool = new DescriptionPool(1);
+        for (int i = 0; i < 100; i++) {
+            String description = "task " + (i % 7);
+            assertEquals(description, pool.intern(description));
+        }
+    }
+}
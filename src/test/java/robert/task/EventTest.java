@@ -1,6 +1,11 @@
 package robert.task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
 
 import org.junit.jupiter.api.Test;
 
@@ -22,4 +27,19 @@ public class EventTest {
         String expected = "[E][ ] Conference (from: 2025-03-05 to: 2025-03-07)";
         assertEquals(expected, e.toString());
     }
+
+    @Test
+    public void getStart_datesAndTimes_parsedWithWholeDayEnd() {
+        Event e = new Event("Retreat", "2025-03-05 14:30", "2025-03-07");
+        assertEquals(LocalDateTime.of(2025, 3, 5, 14, 30), e.getStart());
+        assertEquals(LocalDateTime.of(2025, 3, 8, 0, 0), e.getEnd());
+        assertTrue(e.isScheduled());
+    }
+
+    @Test
+    public void isScheduled_freeTextOrBackwardsTimes_false() {
+        assertFalse(new Event("Lunch", "Mon 2pm", "4pm").isScheduled());
+        assertFalse(new Event("Backwards", "2025-03-05 10:00", "2025-03-05 09:00").isScheduled());
+        assertNull(new Event("Lunch", "Mon 2pm", "4pm").getStart());
+    }
 }
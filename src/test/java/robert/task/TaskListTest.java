@@ -1,10 +1,17 @@
 package robert.task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +21,8 @@ import org.junit.jupiter.api.Test;
  */
 public class TaskListTest {
 
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     private TaskList taskList;
 
     /**
@@ -39,23 +48,37 @@ public class TaskListTest {
      */
     @Test
     public void remove_indexZero_returnsTaskAndReducesSize() {
-        Todo first = new Todo("task1");
-        Todo second = new Todo("task2");
-        taskList.add(first);
-        taskList.add(second);
+        Task first = new Todo("task1");
+        Task second = new Todo("task2");
+        first = taskList.add(first);
+        second = taskList.add(second);
 
         Task removed = taskList.remove(0);
         assertSame(first, removed, "Removed task should be the first one added");
         assertEquals(1, taskList.size(), "TaskList size should be 1 after removal");
     }
 
+    /**
+     * Tests that add() keeps a copy of the task, so the caller's task does not get an id.
+     */
+    @Test
+    public void add_taskWithoutId_addsCopyWithIdAndKeepsOriginal() {
+        Todo todo = new Todo("task1");
+        Task added = taskList.add(todo);
+
+        assertEquals(0, todo.getId());
+        assertEquals(1, added.getId());
+        assertSame(added, taskList.get(0));
+        assertEquals("[T][ ] task1", added.toString());
+    }
+
     /**
      * Tests get() returns the correct Task.
      */
     @Test
     public void get_validIndex_returnsCorrectTask() {
-        Todo first = new Todo("task1");
-        taskList.add(first);
+        Task first = new Todo("task1");
+        first = taskList.add(first);
 
         Task t = taskList.get(0);
         assertSame(first, t);
@@ -66,14 +89,619 @@ public class TaskListTest {
      */
     @Test
     public void getTasks_nonEmptyList_correctTasks() {
-        Todo t1 = new Todo("t1");
-        Todo t2 = new Todo("t2");
-        taskList.add(t1);
-        taskList.add(t2);
+        Task t1 = new Todo("t1");
+        Task t2 = new Todo("t2");
+        t1 = taskList.add(t1);
+        t2 = taskList.add(t2);
 
         ArrayList<Task> actualList = taskList.getTasks();
         assertEquals(2, actualList.size());
         assertTrue(actualList.contains(t1));
         assertTrue(actualList.contains(t2));
     }
+
+    /**
+     * Tests that ids keep referring to the same task after sorting and removing,
+     * and that the ids of removed tasks are not given out again.
+     */
+    @Test
+    public void findById_afterSortAndRemove_returnsSameTask() {
+        Task todo = new Todo("read book");
+        Task deadline = new Deadline("return book", "2025-01-01");
+        Task removed = new Todo("buy milk");
+        todo = taskList.add(todo);
+        deadline = taskList.add(deadline);
+        removed = taskList.add(removed);
+        assertSame(todo, taskList.findById(1));
+
+        taskList.sortDeadlines();
+        taskList.remove(taskList.indexOfId(removed.getId()));
+        Task added = new Todo("call mum");
+        added = taskList.add(added);
+
+        assertSame(todo, taskList.findById(1));
+        assertSame(deadline, taskList.findById(2));
+        assertNull(taskList.findById(3));
+        assertEquals(4, added.getId());
+        assertEquals(1, taskList.indexOfId(todo.getId()));
+    }
+
+    /**
+     * Tests that numbering, id lookups and marks stay correct through a long run of deletes
+     * that leaves tombstones and triggers several compactions.
+     */
+    @Test
+    public void remove_manyTasks_numberingMatchesArrayList() {
+        ArrayList<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Task t = new Todo("task" + i);
+            t = taskList.add(t);
+            expected.add(t);
+        }
+        taskList.findById(1);
+
+        Random random = new Random(42);
+        for (int round = 0; round < 1500; round++) {
+            int index = random.nextInt(expected.size());
+            assertSame(expected.remove(index), taskList.remove(index));
+            if (round % 100 == 0) {
+                expected.set(index % expected.size(), taskList.mark(index % expected.size()));
+                taskList.add(new Todo("extra" + round));
+                expected.add(taskList.get(taskList.size() - 1));
+            }
+        }
+
+        assertEquals(expected.size(), taskList.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Task t = expected.get(i);
+            assertSame(t, taskList.get(i));
+            assertEquals(i, taskList.indexOfId(t.getId()));
+        }
+        assertEquals(expected, taskList.getTasks());
+    }
+
+    /**
+     * Tests that removeIf() removes every matching task and keeps the rest in order.
+     */
+    @Test
+    public void removeIf_doneTasks_removedAndOrderKept() {
+        for (int i = 0; i < 10; i++) {
+            taskList.add(new Todo("task" + i));
+            if (i % 3 == 0) {
+                taskList.mark(i);
+            }
+        }
+        taskList.remove(1);
+
+        List<Task> removed = taskList.removeIf(t -> t.getStatusIcon().equals("X"));
+        assertEquals(4, removed.size());
+        assertEquals(5, taskList.size());
+        assertEquals("task2", taskList.get(0).getDescription());
+        assertEquals("task8", taskList.get(4).getDescription());
+        assertEquals(-1, taskList.indexOfId(removed.get(0).getId()));
+        assertEquals(4, taskList.indexOfId(taskList.get(4).getId()));
+    }
+
+    /**
+     * Tests that find() keeps the substring semantics of a linear scan, including matches
+     * inside words, case differences and keywords spanning several words, as tasks are added,
+     * removed and sorted after the index has been built.
+     */
+    @Test
+    public void find_indexedKeywords_matchLinearScan() {
+        String[] words = {"read", "Book", "return", "books", "meeting", "café", "CAFÉ"};
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            String description = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            taskList.add(i % 5 == 0 ? new Deadline(description, "2025-01-0" + (1 + i % 9)) : new Todo(description));
+        }
+        String[] keywords = {"ook", "BOOK", "read book", "d b", "café", "eting", "x", "ok", "É", "book ret", "zzz",
+            "r", "re", "oo", "o", "e", "fé", "s"};
+
+        for (int round = 0; round < 3; round++) {
+            for (String keyword : keywords) {
+                List<Task> expected = new ArrayList<>();
+                for (int i = 0; i < taskList.size(); i++) {
+                    if (taskList.get(i).getDescription().toLowerCase().contains(keyword.toLowerCase())) {
+                        expected.add(taskList.get(i));
+                    }
+                }
+                assertEquals(expected, taskList.find(keyword), "keyword: " + keyword);
+            }
+            for (int i = 0; i < 50; i++) {
+                taskList.remove(random.nextInt(taskList.size()));
+            }
+            taskList.add(new Todo("new book " + round));
+            taskList.sortDeadlines();
+        }
+    }
+
+    /**
+     * Tests that find() answers compound queries like a check of every task, whichever index
+     * the planner starts from, while tasks are marked, removed and sorted.
+     */
+    @Test
+    public void find_compoundQueries_matchLinearScan() {
+        String[] words = {"read", "book", "return", "meeting", "pay", "rent"};
+        Random random = new Random(11);
+        for (int i = 0; i < 400; i++) {
+            String description = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            Task t = i % 3 == 0 ? new Deadline(description, "2025-03-" + (10 + i % 20))
+                    : i % 3 == 1 ? new Event(description, "Mon", "Tue") : new Todo(description);
+            if (random.nextBoolean()) {
+                t = t.withDone(true);
+            }
+            taskList.add(t);
+        }
+        List<TaskQuery> queries = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            TaskQuery query = new TaskQuery();
+            if (random.nextBoolean()) {
+                query.addText(words[random.nextInt(words.length)].substring(0, 2 + random.nextInt(2)));
+            }
+            if (random.nextBoolean()) {
+                query.setType(random.nextBoolean() ? Deadline.class : Todo.class);
+            }
+            if (random.nextBoolean()) {
+                query.setDone(random.nextBoolean());
+            }
+            if (random.nextInt(3) == 0) {
+                query.setBefore(LocalDate.of(2025, 3, 15 + random.nextInt(15)));
+            }
+            if (random.nextInt(3) == 0) {
+                query.setAfter(LocalDate.of(2025, 3, 10 + random.nextInt(10)));
+            }
+            queries.add(query);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            for (TaskQuery query : queries) {
+                List<Task> expected = new ArrayList<>();
+                for (int i = 0; i < taskList.size(); i++) {
+                    if (query.matches(taskList.get(i))) {
+                        expected.add(taskList.get(i));
+                    }
+                }
+                assertEquals(expected, taskList.find(query));
+            }
+            for (int i = 0; i < 40; i++) {
+                taskList.remove(random.nextInt(taskList.size()));
+                taskList.mark(random.nextInt(taskList.size()));
+                taskList.unmark(random.nextInt(taskList.size()));
+            }
+            taskList.add(new Deadline("pay rent " + round, "2025-03-20"));
+            taskList.sortDeadlines();
+        }
+    }
+
+    /**
+     * Tests that sortDeadlines() orders like a stable sort by date, and does nothing when the
+     * list is already sorted.
+     */
+    @Test
+    public void sortDeadlines_randomList_matchesStableSort() {
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            taskList.add(random.nextInt(3) == 0 ? new Todo("todo " + i)
+                    : new Deadline("deadline " + i, "2025-02-" + (10 + random.nextInt(5))));
+        }
+        for (int i = 0; i < 30; i++) {
+            taskList.remove(random.nextInt(taskList.size()));
+        }
+        taskList.add(new Deadline("late addition", "2025-02-11"));
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; i < taskList.size(); i++) {
+            expected.add(taskList.get(i));
+        }
+        expected.sort((a, b) -> !(a instanceof Deadline) || !(b instanceof Deadline)
+                ? Boolean.compare(!(a instanceof Deadline), !(b instanceof Deadline))
+                : ((Deadline) a).getByDate().compareTo(((Deadline) b).getByDate()));
+
+        assertTrue(taskList.sortDeadlines());
+        assertEquals(expected, taskList.getTasks());
+        assertEquals(expected.subList(0, taskList.deadlinesByDate().size()), taskList.deadlinesByDate());
+        taskList.add(new Todo("another todo"));
+        assertFalse(taskList.sortDeadlines());
+    }
+
+    /**
+     * Tests that deadlinesDue() returns the deadlines in an inclusive range by date, and
+     * leaves out removed tasks and other kinds of tasks.
+     */
+    @Test
+    public void deadlinesDue_inclusiveRange_earliestFirst() {
+        Task march = new Deadline("march", "2025-03-01");
+        Task february = new Deadline("february", "2025-02-01");
+        Task january = new Deadline("january", "2025-01-01");
+        Task removed = new Deadline("removed", "2025-02-01");
+        march = taskList.add(march);
+        taskList.add(new Todo("todo"));
+        removed = taskList.add(removed);
+        february = taskList.add(february);
+        january = taskList.add(january);
+        taskList.remove(2);
+
+        assertEquals(List.of(february, march),
+                taskList.deadlinesDue(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 1)));
+        assertEquals(List.of(january), taskList.deadlinesDue(null, LocalDate.of(2025, 1, 31)));
+        assertEquals(List.of(), taskList.deadlinesDue(LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 1)));
+    }
+
+    /**
+     * Tests that eventsBetween() and eventConflicts() agree with comparing every event, while
+     * events are added and removed after the interval tree has been built.
+     */
+    @Test
+    public void eventQueries_randomEvents_matchPairwiseComparison() {
+        Random random = new Random(5);
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 0, 0);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 60; i++) {
+                LocalDateTime start = base.plusHours(random.nextInt(500));
+                LocalDateTime end = start.plusHours(random.nextInt(30) - 2);
+                taskList.add(random.nextInt(10) == 0 ? new Todo("todo")
+                        : new Event("event", start.format(FORMAT), end.format(FORMAT)));
+            }
+            for (int i = 0; i < 20; i++) {
+                taskList.remove(random.nextInt(taskList.size()));
+            }
+            List<Event> events = new ArrayList<>();
+            for (int i = 0; i < taskList.size(); i++) {
+                if (taskList.get(i) instanceof Event && ((Event) taskList.get(i)).isScheduled()) {
+                    events.add((Event) taskList.get(i));
+                }
+            }
+            events.sort((a, b) -> a.getStart().equals(b.getStart())
+                    ? Integer.compare(a.getId(), b.getId()) : a.getStart().compareTo(b.getStart()));
+
+            LocalDateTime from = base.plusHours(random.nextInt(400));
+            LocalDateTime to = from.plusHours(1 + random.nextInt(100));
+            List<Task> expected = new ArrayList<>();
+            int expectedConflicts = 0;
+            for (int i = 0; i < events.size(); i++) {
+                Event e = events.get(i);
+                if (e.getStart().isBefore(to) && e.getEnd().isAfter(from)) {
+                    expected.add(e);
+                }
+                for (int j = i + 1; j < events.size(); j++) {
+                    Event other = events.get(j);
+                    if (other.getStart().isBefore(e.getEnd()) && e.getStart().isBefore(other.getEnd())) {
+                        expectedConflicts++;
+                    }
+                }
+            }
+            assertEquals(expected, taskList.eventsBetween(from, to));
+            assertEquals(expectedConflicts, taskList.eventConflicts().size());
+        }
+    }
+
+    /**
+     * Tests that a columnar TaskList shows the same tasks as a heap one after the same adds,
+     * marks, removals and sorts, and that its snapshots are not affected by later changes.
+     */
+    @Test
+    public void columnar_sameOperations_matchHeapList() {
+        Random random = new Random(13);
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            initial.add(new Todo("initial " + i));
+        }
+        TaskList columnar = TaskList.columnar(initial);
+        TaskList heap = new TaskList(new ArrayList<>(initial));
+        List<String> frozen = null;
+        List<Task> snapshot = null;
+        for (int i = 0; i < 600; i++) {
+            int op = random.nextInt(10);
+            if (op < 5 || heap.size() == 0) {
+                int kind = random.nextInt(3);
+                String day = "2025-04-" + (10 + random.nextInt(9));
+                columnar.add(newTask(kind, "task é|" + i, day));
+                heap.add(newTask(kind, "task é|" + i, day));
+            } else if (op < 7) {
+                int index = random.nextInt(heap.size());
+                assertEquals(heap.mark(index).toString(), columnar.mark(index).toString());
+            } else if (op < 9) {
+                int index = random.nextInt(heap.size());
+                assertEquals(heap.remove(index).toString(), columnar.remove(index).toString());
+            } else {
+                heap.sortDeadlines();
+                columnar.sortDeadlines();
+            }
+            if (i == 300) {
+                snapshot = columnar.snapshot();
+                frozen = describe(snapshot);
+            }
+        }
+        assertEquals(describe(heap.getTasks()), describe(columnar.getTasks()));
+        assertEquals(frozen, describe(snapshot));
+
+        TaskQuery query = new TaskQuery();
+        query.setDone(true);
+        query.setType(Deadline.class);
+        assertEquals(describe(heap.find(query)), describe(columnar.find(query)));
+    }
+
+    /**
+     * Tests that undo and redo walk back and forth through the checkpoints of a long run of
+     * random changes, and that a change after an undo drops the steps that could be redone.
+     */
+    @Test
+    public void undoRedo_randomChanges_restoreEveryCheckpoint() {
+        Random random = new Random(21);
+        for (int i = 0; i < 3000; i++) {
+            taskList.add(newTask(random.nextInt(3), "initial " + i, "2025-04-" + (10 + random.nextInt(9))));
+        }
+        taskList.checkpoint();
+        List<List<String>> history = new ArrayList<>();
+        history.add(describe(taskList.getTasks()));
+        for (int step = 0; step < 60; step++) {
+            for (int j = random.nextInt(40); j >= 0; j--) {
+                int op = random.nextInt(10);
+                if (op < 3) {
+                    taskList.add(newTask(random.nextInt(3), "step " + step, "2025-04-" + (10 + random.nextInt(9))));
+                } else if (op < 6) {
+                    taskList.mark(random.nextInt(taskList.size()));
+                } else if (op < 9) {
+                    taskList.remove(random.nextInt(taskList.size()));
+                } else {
+                    taskList.sortDeadlines();
+                }
+            }
+            taskList.checkpoint();
+            history.add(describe(taskList.getTasks()));
+        }
+
+        for (int step = history.size() - 2; step >= history.size() - 31; step--) {
+            assertTrue(taskList.undo());
+            assertEquals(history.get(step), describe(taskList.getTasks()));
+        }
+        for (int step = history.size() - 30; step < history.size() - 10; step++) {
+            assertTrue(taskList.redo());
+            assertEquals(history.get(step), describe(taskList.getTasks()));
+            assertEquals(taskList.get(0), taskList.findById(taskList.get(0).getId()));
+        }
+
+        int nextId = taskList.getNextId();
+        taskList.remove(0);
+        Task added = new Todo("after undo");
+        added = taskList.add(added);
+        assertEquals(nextId, added.getId());
+        assertFalse(taskList.redo());
+        assertTrue(taskList.undo());
+        assertEquals(history.get(history.size() - 11), describe(taskList.getTasks()));
+    }
+
+    /**
+     * Tests that marking and removing sets of indexes in one batch gives the same list as
+     * changing the tasks one at a time, from the highest index down.
+     */
+    @Test
+    public void removeAll_randomIndexSets_matchSingleRemovals() {
+        Random random = new Random(34);
+        TaskList single = new TaskList();
+        for (int i = 0; i < 2000; i++) {
+            int kind = random.nextInt(3);
+            String day = "2025-04-" + (10 + random.nextInt(9));
+            taskList.add(newTask(kind, "task " + i, day));
+            single.add(newTask(kind, "task " + i, day));
+        }
+        taskList.find("task 1");
+        for (int round = 0; round < 20; round++) {
+            int[] indexes = random.ints(random.nextInt(300) + 1, 0, taskList.size()).sorted().distinct().toArray();
+            if (round % 2 == 0) {
+                taskList.setDoneAll(indexes, true);
+                for (int index : indexes) {
+                    single.mark(index);
+                }
+            } else {
+                List<Task> removed = taskList.removeAll(indexes);
+                assertEquals(indexes.length, removed.size());
+                for (int i = indexes.length - 1; i >= 0; i--) {
+                    single.remove(indexes[i]);
+                }
+            }
+            assertEquals(describe(single.getTasks()), describe(taskList.getTasks()));
+        }
+        TaskQuery query = new TaskQuery();
+        query.addText("task 1");
+        query.setDone(true);
+        assertEquals(describe(single.find(query)), describe(taskList.find(query)));
+    }
+
+    /**
+     * Tests that paged and columnar lists, whose columns are kept in blocks that versions
+     * share, restore every checkpoint of a run of changes spread over many blocks, including
+     * one that compacts the tombstones.
+     */
+    @Test
+    public void undoRedo_pagedAndColumnar_restoreEveryCheckpoint() {
+        TaskSource source = new TaskSource() {
+            @Override
+            public int size() {
+                return 5000;
+            }
+
+            @Override
+            public Task get(int record) {
+                Task t = newTask(record % 3, "record " + record + " with a longer description", "2025-04-10");
+                t.setId(record + 1);
+                return t;
+            }
+        };
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            initial.add(source.get(i));
+        }
+        for (TaskList list : List.of(TaskList.paged(source), TaskList.columnar(initial))) {
+            list.advanceNextId(5001);
+            Random random = new Random(5);
+            list.checkpoint();
+            List<List<String>> history = new ArrayList<>();
+            history.add(describe(list.getTasks()));
+            for (int step = 0; step < 40; step++) {
+                for (int j = random.nextInt(20); j >= 0; j--) {
+                    int op = random.nextInt(3);
+                    if (op == 0) {
+                        list.add(newTask(random.nextInt(3), "step " + step + " é", "2025-04-11"));
+                    } else if (op == 1) {
+                        list.mark(random.nextInt(list.size()));
+                    } else {
+                        list.remove(random.nextInt(list.size()));
+                    }
+                }
+                if (step == 20) {
+                    for (int j = 0; j < 1500; j++) {
+                        list.remove(random.nextInt(list.size()));
+                    }
+                }
+                list.checkpoint();
+                history.add(describe(list.getTasks()));
+            }
+
+            for (int step = history.size() - 2; step >= 0; step--) {
+                assertTrue(list.undo());
+                assertEquals(history.get(step), describe(list.getTasks()));
+            }
+            for (int step = 1; step < history.size(); step++) {
+                assertTrue(list.redo());
+                assertEquals(history.get(step), describe(list.getTasks()));
+            }
+        }
+    }
+
+    private static Task newTask(int kind, String description, String day) {
+        return kind == 0 ? new Todo(description)
+                : kind == 1 ? new Deadline(description, day) : new Event(description, day + " 10:00", "Fri");
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task t : tasks) {
+            lines.add(t + " #" + t.getId());
+        }
+        return lines;
+    }
+
+    /**
+     * Tests that a snapshot taken while the list has tombstones holds exactly the live tasks,
+     * and that later removals and additions do not change it.
+     */
+    @Test
+    public void snapshot_afterRemovals_holdsLiveTasksOnly() {
+        for (int i = 0; i < 1000; i++) {
+            taskList.add(new Todo("task" + i));
+        }
+        taskList.remove(500);
+        taskList.remove(0);
+        List<Task> snapshot = taskList.snapshot();
+        List<String> frozen = describe(snapshot);
+
+        assertEquals(998, snapshot.size());
+        assertEquals("[T][ ] task1 #2", frozen.get(0));
+        assertEquals("[T][ ] task502 #503", frozen.get(500));
+        assertEquals(describe(taskList.getTasks()), frozen);
+
+        taskList.remove(10);
+        taskList.add(new Todo("added"));
+        taskList.mark(0);
+        assertEquals(frozen, describe(snapshot));
+        assertEquals(998, taskList.snapshot().size());
+    }
+
+    /**
+     * Tests that snapshots taken while another thread changes the list never change, and that
+     * marking a task replaces it instead of changing the task held by earlier snapshots.
+     */
+    @Test
+    public void snapshot_concurrentWriter_snapshotsStayUnchanged() throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            taskList.add(new Todo("task" + i));
+        }
+        Thread writer = new Thread(() -> {
+            Random random = new Random(17);
+            for (int i = 0; i < 5000; i++) {
+                int op = random.nextInt(3);
+                if (op == 0) {
+                    taskList.add(new Todo("added" + i));
+                } else if (op == 1) {
+                    taskList.mark(random.nextInt(taskList.size()));
+                } else {
+                    taskList.remove(random.nextInt(taskList.size()));
+                }
+            }
+        });
+        writer.start();
+        List<List<Task>> snapshots = new ArrayList<>();
+        List<List<String>> contents = new ArrayList<>();
+        while (writer.isAlive()) {
+            List<Task> snapshot = taskList.snapshot();
+            snapshots.add(snapshot);
+            contents.add(describe(snapshot));
+        }
+        writer.join();
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(contents.get(i), describe(snapshots.get(i)));
+        }
+        assertEquals(describe(taskList.snapshot()), describe(taskList.getTasks()));
+    }
+
+    /**
+     * Tests that findSimilar() tolerates typos and ranks tasks by the number of query words
+     * matched, then by the total number of edits, then by list order.
+     */
+    @Test
+    public void findSimilar_misspelledQuery_ranksClosestFirst() {
+        Task returnBook = new Todo("return book");
+        Task readBook = new Todo("read book");
+        Task returnBooks = new Todo("Return books to library");
+        Task unrelated = new Todo("buy milk");
+        readBook = taskList.add(readBook);
+        returnBooks = taskList.add(returnBooks);
+        unrelated = taskList.add(unrelated);
+        returnBook = taskList.add(returnBook);
+        for (int i = 0; i < 200; i++) {
+            taskList.add(new Todo("filler task " + i));
+        }
+
+        assertEquals(List.of(returnBook, returnBooks, readBook), taskList.findSimilar("retrun book", 10));
+        assertEquals(List.of(returnBook), taskList.findSimilar("retrun book", 1));
+        assertTrue(taskList.findSimilar("xylophone", 10).isEmpty());
+
+        taskList.remove(taskList.indexOfId(returnBook.getId()));
+        taskList.add(new Todo("retune bok"));
+        assertEquals("retune bok", taskList.findSimilar("retrun book", 10).get(1).getDescription());
+    }
+
+    /**
+     * Tests that a paged TaskList keeps changes to tasks even though its source
+     * decodes a fresh object on every access.
+     */
+    @Test
+    public void paged_markAndRemove_changesKept() {
+        TaskSource source = new TaskSource() {
+            @Override
+            public int size() {
+                return 3;
+            }
+
+            @Override
+            public Task get(int record) {
+                return new Todo("task" + record);
+            }
+        };
+        TaskList paged = TaskList.paged(source);
+        List<Task> before = paged.snapshot();
+
+        paged.mark(1);
+        paged.remove(0);
+        paged.add(new Todo("task3"));
+
+        assertTrue(paged.isPaged());
+        assertEquals(3, paged.size());
+        assertEquals("[T][X] task1", paged.get(0).toString());
+        assertEquals("[T][ ] task3", paged.get(2).toString());
+        assertEquals("[T][ ] task0", before.get(0).toString());
+        assertEquals(3, before.size());
+    }
 }
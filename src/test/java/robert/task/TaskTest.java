@@ -18,18 +18,20 @@ public class TaskTest {
     }
 
     @Test
-    public void markAsDone_changesIsDoneToTrue() {
+    public void withDone_true_returnsDoneCopyAndKeepsOriginal() {
         Task t = new Task("Do laundry");
-        t.markAsDone();
-        assertTrue(t.isDone);
+        Task done = t.withDone(true);
+        assertTrue(done.isDone);
+        assertFalse(t.isDone);
     }
 
     @Test
-    public void markAsNotDone_changesIsDoneToFalse() {
+    public void withDone_false_returnsNotDoneCopyWithSameId() {
         Task t = new Task("Do laundry");
-        t.markAsDone();
-        t.markAsNotDone();
-        assertFalse(t.isDone);
+        t.setId(7);
+        Task notDone = t.withDone(true).withDone(false);
+        assertFalse(notDone.isDone);
+        assertEquals(7, notDone.getId());
     }
 
     @Test